@@ -0,0 +1,35 @@
+package bio.terra.folder.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Starts the whole service, without its web server, for benchmarks that measure work done against
+// the databases. It uses the same local Postgres databases as the tests, and like the tests it
+// wipes them on startup.
+public final class BenchmarkApplication {
+  private static final List<String> DATABASE_ARGS =
+      Arrays.asList(
+          "--db.folder.uri=jdbc:postgresql://127.0.0.1:5432/testdb",
+          "--db.folder.username=dbuser",
+          "--db.folder.password=dbpwd",
+          "--db.folder.initializeOnStart=true",
+          "--db.stairway.uri=jdbc:postgresql://127.0.0.1:5432/stairwaylib",
+          "--db.stairway.username=stairwayuser",
+          "--db.stairway.password=stairwaypwd",
+          "--db.stairway.forceClean=true");
+
+  private BenchmarkApplication() {}
+
+  // Extra arguments are properties in command line form, e.g. --folder.createFolderFastPath=true
+  public static ConfigurableApplicationContext start(String... args) {
+    List<String> allArgs = new ArrayList<>(DATABASE_ARGS);
+    allArgs.addAll(Arrays.asList(args));
+    return new SpringApplicationBuilder(Main.class)
+        .web(WebApplicationType.NONE)
+        .run(allArgs.toArray(new String[0]));
+  }
+}
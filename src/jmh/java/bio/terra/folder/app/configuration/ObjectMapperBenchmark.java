@@ -0,0 +1,89 @@
+package bio.terra.folder.app.configuration;
+
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.folder.generated.model.CreatedFolderTreeNode;
+import bio.terra.folder.generated.model.FolderDescendantList;
+import bio.terra.folder.generated.model.FolderDescription;
+import bio.terra.folder.generated.model.JobModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Serialization of the largest API responses with the service's configured ObjectMapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectMapperBenchmark {
+  private static final int PAGE_SIZE = 100;
+
+  private ObjectWriter writer;
+  private JobModel jobModel;
+  private CreatedFolderTree folderTree;
+  private FolderDescendantList descendantPage;
+
+  @Setup
+  public void setup() {
+    ObjectMapper objectMapper = new ApplicationConfiguration().objectMapper();
+    writer = objectMapper.writer();
+
+    jobModel =
+        new JobModel()
+            .id(UUID.randomUUID().toString())
+            .description("Create folder benchmark")
+            .status(JobModel.StatusEnum.SUCCEEDED)
+            .statusCode(200)
+            .submitted(Instant.now().toString())
+            .completed(Instant.now().toString());
+
+    // Ten top-level folders with ten children each
+    folderTree = new CreatedFolderTree();
+    for (int i = 0; i < 10; i++) {
+      CreatedFolderTreeNode node = buildNode("folder " + i);
+      for (int j = 0; j < 10; j++) {
+        node.addChildrenItem(buildNode("folder " + i + "." + j));
+      }
+      folderTree.addFoldersItem(node);
+    }
+
+    descendantPage = new FolderDescendantList().nextPageToken(UUID.randomUUID().toString());
+    String parentId = UUID.randomUUID().toString();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      descendantPage.addFoldersItem(
+          new FolderDescription()
+              .id(UUID.randomUUID().toString())
+              .name("folder " + i)
+              .parentFolderId(parentId)
+              .spendProfile("spend-profile")
+              .depth(1));
+    }
+  }
+
+  @Benchmark
+  public String writeJobModel() throws JsonProcessingException {
+    return writer.writeValueAsString(jobModel);
+  }
+
+  @Benchmark
+  public String writeCreatedFolderTree() throws JsonProcessingException {
+    return writer.writeValueAsString(folderTree);
+  }
+
+  @Benchmark
+  public String writeDescendantPage() throws JsonProcessingException {
+    return writer.writeValueAsString(descendantPage);
+  }
+
+  private CreatedFolderTreeNode buildNode(String name) {
+    return new CreatedFolderTreeNode().id(UUID.randomUUID().toString()).name(name);
+  }
+}
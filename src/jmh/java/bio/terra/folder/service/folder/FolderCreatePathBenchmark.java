@@ -0,0 +1,60 @@
+package bio.terra.folder.service.folder;
+
+import bio.terra.folder.app.BenchmarkApplication;
+import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Top-level folder creates against the local databases, run through a Stairway flight and through
+// the fast path. The fast path skips the Stairway database writes and the hop to a flight thread,
+// which are most of the cost of a flight create; comparing the two rates shows what that saves.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FolderCreatePathBenchmark {
+  @Param({"false", "true"})
+  public boolean fastPath;
+
+  private ConfigurableApplicationContext context;
+  private FolderService folderService;
+  private AuthenticatedUserRequest userReq;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkApplication.start("--folder.createFolderFastPath=" + fastPath);
+    folderService = context.getBean(FolderService.class);
+    userReq =
+        new AuthenticatedUserRequest()
+            .subjectId("1234567890")
+            .email("bench@unit.com")
+            .token(Optional.of("not-a-real-token"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CreatedFolder createTopLevelFolder() {
+    CreateFolderBody request = new CreateFolderBody();
+    request.setName("bench-" + UUID.randomUUID().toString());
+    request.setParentFolderId(JsonNullable.undefined());
+    request.setSpendProfile(JsonNullable.undefined());
+    return folderService.createFolder(request, userReq);
+  }
+}
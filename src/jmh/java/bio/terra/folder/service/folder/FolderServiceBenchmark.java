@@ -0,0 +1,97 @@
+package bio.terra.folder.service.folder;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.db.FolderDao;
+import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import io.opentelemetry.api.OpenTelemetry;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Fast-path creates of top-level folders with the insert stubbed out. What is left is all CPU:
+// the name pattern match and length check, the pre-flight phase, and assigning the folder id.
+// Requests with a parent add one database read, which is not measured here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FolderServiceBenchmark {
+  private PreflightRunner preflightRunner;
+  private FolderService folderService;
+  private AuthenticatedUserRequest userReq;
+  private CreateFolderBody typicalRequest;
+  private CreateFolderBody longNameRequest;
+
+  @Setup
+  public void setup() {
+    ApplicationConfiguration appConfig = new ApplicationConfiguration();
+    appConfig.setCreateFolderFastPath(true);
+    appConfig.setCreateFolderAuthorization(false);
+    appConfig.setPreflightThreads(1);
+    preflightRunner = new PreflightRunner(appConfig);
+    // Top-level fast-path creates never reach the job service or Sam
+    folderService =
+        new FolderService(
+            null,
+            new NoOpFolderDao(),
+            appConfig,
+            OpenTelemetry.noop().getTracer("benchmark"),
+            null,
+            preflightRunner);
+    userReq =
+        new AuthenticatedUserRequest()
+            .subjectId("1234567890")
+            .email("bench@unit.com")
+            .token(Optional.of("not-a-real-token"));
+    typicalRequest = buildRequest("Project folder - analysis_2020");
+    longNameRequest = buildRequest(StringUtils.repeat("long name ", 1000));
+  }
+
+  @TearDown
+  public void tearDown() {
+    preflightRunner.shutdown();
+  }
+
+  @Benchmark
+  public CreatedFolder createTypicalName() {
+    return folderService.createFolder(typicalRequest, userReq);
+  }
+
+  @Benchmark
+  public CreatedFolder createLongName() {
+    return folderService.createFolder(longNameRequest, userReq);
+  }
+
+  private CreateFolderBody buildRequest(String name) {
+    CreateFolderBody request = new CreateFolderBody();
+    request.setName(name);
+    request.setParentFolderId(JsonNullable.undefined());
+    request.setSpendProfile(JsonNullable.undefined());
+    return request;
+  }
+
+  // Drops inserts, so that only the service's own work is measured
+  private static class NoOpFolderDao extends FolderDao {
+    NoOpFolderDao() {
+      super(null, null, null);
+    }
+
+    @Override
+    public void createFolder(
+        String folderId,
+        String folderName,
+        JsonNullable<String> parentFolderId,
+        JsonNullable<String> spendProfile,
+        boolean spendProfileInherited) {}
+  }
+}
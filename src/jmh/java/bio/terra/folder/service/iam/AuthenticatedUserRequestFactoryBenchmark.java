@@ -0,0 +1,47 @@
+package bio.terra.folder.service.iam;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+// Building the AuthenticatedUserRequest from the proxy's headers, done once per API request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthenticatedUserRequestFactoryBenchmark {
+  private ProxiedAuthenticatedUserRequestFactory factory;
+  private MockHttpServletRequest oidcRequest;
+  private MockHttpServletRequest bearerRequest;
+
+  @Setup
+  public void setup() {
+    factory = new ProxiedAuthenticatedUserRequestFactory();
+
+    oidcRequest = new MockHttpServletRequest();
+    oidcRequest.addHeader(AuthHeaderKeys.OIDC_ACCESS_TOKEN.getKeyName(), "not-a-real-token");
+    oidcRequest.addHeader(AuthHeaderKeys.OIDC_CLAIM_EMAIL.getKeyName(), "bench@unit.com");
+    oidcRequest.addHeader(AuthHeaderKeys.OIDC_CLAIM_USER_ID.getKeyName(), "1234567890");
+
+    // Without the OIDC token header the factory falls back to the Authorization header
+    bearerRequest = new MockHttpServletRequest();
+    bearerRequest.addHeader(AuthHeaderKeys.AUTHORIZATION.getKeyName(), "Bearer:not-a-real-token");
+    bearerRequest.addHeader(AuthHeaderKeys.OIDC_CLAIM_EMAIL.getKeyName(), "bench@unit.com");
+    bearerRequest.addHeader(AuthHeaderKeys.OIDC_CLAIM_USER_ID.getKeyName(), "1234567890");
+  }
+
+  @Benchmark
+  public AuthenticatedUserRequest fromOidcHeaders() {
+    return factory.from(oidcRequest);
+  }
+
+  @Benchmark
+  public AuthenticatedUserRequest fromAuthorizationHeader() {
+    return factory.from(bearerRequest);
+  }
+}
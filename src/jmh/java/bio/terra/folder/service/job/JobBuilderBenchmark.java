@@ -0,0 +1,53 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.service.folder.flight.FolderCreateFlight;
+import bio.terra.folder.service.folder.flight.FolderFlightMapKeys;
+import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Building the input parameters of a folder create flight, as FolderService does for each create
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JobBuilderBenchmark {
+  private AuthenticatedUserRequest userReq;
+  private CreateFolderBody request;
+  private String folderId;
+  private String jobId;
+
+  @Setup
+  public void setup() {
+    userReq =
+        new AuthenticatedUserRequest()
+            .subjectId("1234567890")
+            .email("bench@unit.com")
+            .token(Optional.of("not-a-real-token"));
+    request = new CreateFolderBody();
+    request.setName("Project folder");
+    request.setParentFolderId(JsonNullable.of(UUID.randomUUID().toString()));
+    request.setSpendProfile(JsonNullable.undefined());
+    folderId = UUID.randomUUID().toString();
+    jobId = UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public JobBuilder buildCreateFolderJob() {
+    // The builder is never submitted, so it needs no JobService
+    return new JobBuilder(
+            "Create folder " + folderId, jobId, FolderCreateFlight.class, request, userReq, null)
+        .addParameter(FolderFlightMapKeys.FOLDER_ID, folderId)
+        .addParameter(FolderFlightMapKeys.SPEND_PROFILE_ID, "spend-profile")
+        .addParameter(FolderFlightMapKeys.SPEND_PROFILE_INHERITED, true);
+  }
+}
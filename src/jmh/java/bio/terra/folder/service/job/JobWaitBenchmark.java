@@ -0,0 +1,90 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.app.BenchmarkApplication;
+import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.generated.model.JobModel;
+import bio.terra.folder.service.folder.flight.FolderCreateFlight;
+import bio.terra.folder.service.folder.flight.FolderFlightMapKeys;
+import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Latency of a synchronous folder create flight, from submission until the caller has its result,
+// against the local databases. The sampled distribution in the results gives p50 and p99.
+// "completion" waits the way submitAndWait does, woken as soon as the flight finishes. "poll" is
+// the baseline it replaced: check the flight's state, then sleep 10 seconds before checking again,
+// as waitForJob did through Stairway's waitForFlight.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JobWaitBenchmark {
+  private static final long POLL_SECONDS = 10;
+
+  @Param({"completion", "poll"})
+  public String waitFor;
+
+  private ConfigurableApplicationContext context;
+  private JobService jobService;
+  private AuthenticatedUserRequest userReq;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkApplication.start();
+    jobService = context.getBean(JobService.class);
+    userReq =
+        new AuthenticatedUserRequest()
+            .subjectId("1234567890")
+            .email("bench@unit.com")
+            .token(Optional.of("not-a-real-token"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CreatedFolder createFolder() throws InterruptedException {
+    JobBuilder jobBuilder = newCreateFolderJob();
+    if (waitFor.equals("completion")) {
+      return jobBuilder.submitAndWait(CreatedFolder.class);
+    }
+    String jobId = jobBuilder.submit();
+    while (jobService.retrieveJob(jobId, userReq).getStatus() == JobModel.StatusEnum.RUNNING) {
+      TimeUnit.SECONDS.sleep(POLL_SECONDS);
+    }
+    return jobService.retrieveJobResult(jobId, CreatedFolder.class, userReq).getResult();
+  }
+
+  // The same job FolderService builds for a top-level create on the flight path
+  private JobBuilder newCreateFolderJob() {
+    String folderId = UUID.randomUUID().toString();
+    CreateFolderBody request = new CreateFolderBody();
+    request.setName("bench-" + folderId);
+    request.setParentFolderId(JsonNullable.undefined());
+    request.setSpendProfile(JsonNullable.undefined());
+    return jobService
+        .newJob(
+            "Create folder " + folderId,
+            UUID.randomUUID().toString(),
+            FolderCreateFlight.class,
+            request,
+            userReq)
+        .addParameter(FolderFlightMapKeys.FOLDER_ID, folderId)
+        .addParameter(FolderFlightMapKeys.SPEND_PROFILE_ID, null)
+        .addParameter(FolderFlightMapKeys.SPEND_PROFILE_INHERITED, false);
+  }
+}
@@ -0,0 +1,54 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.service.migrate.exception.MigrateException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Round trips of the exceptions Stairway stores with failed flights. Deserializing happens every
+// time a failed job is polled, so it is the side that matters.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StairwayExceptionSerializerBenchmark {
+  private StairwayExceptionSerializer serializer;
+  private Exception errorReportException;
+  private String serializedErrorReportException;
+  private String serializedRuntimeException;
+
+  @Setup
+  public void setup() {
+    serializer = new StairwayExceptionSerializer(new ObjectMapper());
+    errorReportException =
+        new MigrateException("migrate failed", Arrays.asList("first cause", "second cause"));
+    serializedErrorReportException = serializer.serialize(errorReportException);
+    serializedRuntimeException = serializer.serialize(new IllegalStateException("bad state"));
+  }
+
+  @Benchmark
+  public String serializeErrorReportException() {
+    return serializer.serialize(errorReportException);
+  }
+
+  @Benchmark
+  public Exception deserializeErrorReportException() {
+    return serializer.deserialize(serializedErrorReportException);
+  }
+
+  @Benchmark
+  public Exception deserializeRuntimeException() {
+    return serializer.deserialize(serializedRuntimeException);
+  }
+
+  @Benchmark
+  public Exception roundTripErrorReportException() {
+    return serializer.deserialize(serializer.serialize(errorReportException));
+  }
+}
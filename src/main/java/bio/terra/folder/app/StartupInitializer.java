@@ -1,8 +1,11 @@
 package bio.terra.folder.app;
 
 import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import bio.terra.folder.db.NotificationListener;
+import bio.terra.folder.service.job.FlightJanitor;
 import bio.terra.folder.service.job.JobService;
 import bio.terra.folder.service.migrate.MigrateService;
+import bio.terra.folder.service.status.StatusService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
@@ -25,9 +28,23 @@ public final class StartupInitializer {
       migrateService.upgrade(changelogPath, folderManagerJdbcConfiguration.getDataSource());
     }
 
+    // Listen for notifications from other instances, such as folder cache invalidations and job
+    // completions, once the schema is in place.
+    NotificationListener notificationListener =
+        (NotificationListener) applicationContext.getBean("notificationListener");
+    notificationListener.start();
+
     // The JobService initialization also handles Stairway initialization.
     jobService.initialize();
 
+    // Start deleting old finished flights once Stairway is up.
+    FlightJanitor flightJanitor = (FlightJanitor) applicationContext.getBean("flightJanitor");
+    flightJanitor.start();
+
+    // Start the background status checks once everything they check is up.
+    StatusService statusService = (StatusService) applicationContext.getBean("statusService");
+    statusService.start();
+
     // TODO: Fill in this method with any other initialization that needs to happen
     //  between the point of having the entire application initialized and
     //  the point of opening the port to start accepting REST requests.
@@ -1,11 +1,19 @@
 package bio.terra.folder.app.configuration;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class ApiResourceConfig implements WebMvcConfigurer {
+  private final RequestTracingInterceptor requestTracingInterceptor;
+
+  @Autowired
+  public ApiResourceConfig(RequestTracingInterceptor requestTracingInterceptor) {
+    this.requestTracingInterceptor = requestTracingInterceptor;
+  }
 
   @Override
   public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -14,4 +22,9 @@ public class ApiResourceConfig implements WebMvcConfigurer {
         .addResourceLocations("classpath:/META-INF/resources/webjars/swagger-ui/3.24.0/");
     registry.addResourceHandler("/api/**").addResourceLocations("classpath:/api/");
   }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(requestTracingInterceptor);
+  }
 }
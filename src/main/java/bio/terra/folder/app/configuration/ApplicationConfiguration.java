@@ -1,10 +1,14 @@
 package bio.terra.folder.app.configuration;
 
 import bio.terra.folder.app.StartupInitializer;
+import bio.terra.folder.db.TracingJdbcTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.opentelemetry.api.trace.Tracer;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.commons.dbcp2.PoolableConnection;
 import org.apache.commons.dbcp2.PoolingDataSource;
 import org.openapitools.jackson.nullable.JsonNullableModule;
@@ -24,7 +28,44 @@ public class ApplicationConfiguration {
   // Configurable properties
   private int maxStairwayThreads;
   private int stairwayTimeoutSeconds;
+  private int stairwayPollFallbackSeconds;
   private String resourceId;
+  // When true, single-step synchronous folder creates run in one local transaction on the request
+  // thread instead of going through a Stairway flight.
+  private boolean createFolderFastPath;
+  // Bounds on the JobService cache of completed flight states
+  private int terminalFlightCacheMaximumSize;
+  private int terminalFlightCacheExpireSeconds;
+  // Upper bound on how long a job poll may wait for the job to finish
+  private int maxJobWaitSeconds;
+  // How long a job event stream stays open waiting for the job to finish
+  private int jobEventsTimeoutSeconds;
+  // Admission control: how many admitted flights may wait for a Stairway thread before new ones
+  // are rejected, and the Retry-After sent with the rejection
+  private int maxQueuedFlights;
+  private int admissionRetryAfterSeconds;
+  // Separate Stairway pools, by name, that keep slow flight classes from starving the rest
+  private Map<String, FlightPoolConfiguration> flightPools = new HashMap<>();
+  // Retention of finished flights; see FlightJanitor
+  private boolean flightJanitorEnabled;
+  private int flightRetentionHours;
+  private int flightJanitorIntervalSeconds;
+  private int flightJanitorBatchSize;
+  private int flightJanitorMaxBatchesPerRun;
+  // When true, finished trace spans are written to the log; see TracingConfiguration
+  private boolean tracingLogSpans;
+  // When true, folder creates check the caller's create-folder permission in Sam
+  private boolean createFolderAuthorization;
+  // Threads shared by all requests for running pre-flight checks concurrently; see PreflightRunner
+  private int preflightThreads;
+  // How often the status checks run, and how old their results may get before the service reports
+  // itself not ok; see StatusService
+  private int statusCheckIntervalSeconds;
+  private int statusStaleSeconds;
+
+  // Bounds on how many folders a single create-tree request may hold, and how many levels deep
+  private int maxFolderTreeSize;
+  private int maxFolderTreeDepth;
 
   // Not a property
   private PoolingDataSource<PoolableConnection> dataSource;
@@ -37,6 +78,14 @@ public class ApplicationConfiguration {
     this.stairwayTimeoutSeconds = stairwayTimeoutSeconds;
   }
 
+  public int getStairwayPollFallbackSeconds() {
+    return stairwayPollFallbackSeconds;
+  }
+
+  public void setStairwayPollFallbackSeconds(int stairwayPollFallbackSeconds) {
+    this.stairwayPollFallbackSeconds = stairwayPollFallbackSeconds;
+  }
+
   public int getMaxStairwayThreads() {
     return maxStairwayThreads;
   }
@@ -53,10 +102,170 @@ public class ApplicationConfiguration {
     this.resourceId = resourceId;
   }
 
+  public boolean isCreateFolderFastPath() {
+    return createFolderFastPath;
+  }
+
+  public void setCreateFolderFastPath(boolean createFolderFastPath) {
+    this.createFolderFastPath = createFolderFastPath;
+  }
+
+  public int getTerminalFlightCacheMaximumSize() {
+    return terminalFlightCacheMaximumSize;
+  }
+
+  public void setTerminalFlightCacheMaximumSize(int terminalFlightCacheMaximumSize) {
+    this.terminalFlightCacheMaximumSize = terminalFlightCacheMaximumSize;
+  }
+
+  public int getTerminalFlightCacheExpireSeconds() {
+    return terminalFlightCacheExpireSeconds;
+  }
+
+  public void setTerminalFlightCacheExpireSeconds(int terminalFlightCacheExpireSeconds) {
+    this.terminalFlightCacheExpireSeconds = terminalFlightCacheExpireSeconds;
+  }
+
+  public int getMaxJobWaitSeconds() {
+    return maxJobWaitSeconds;
+  }
+
+  public void setMaxJobWaitSeconds(int maxJobWaitSeconds) {
+    this.maxJobWaitSeconds = maxJobWaitSeconds;
+  }
+
+  public int getJobEventsTimeoutSeconds() {
+    return jobEventsTimeoutSeconds;
+  }
+
+  public void setJobEventsTimeoutSeconds(int jobEventsTimeoutSeconds) {
+    this.jobEventsTimeoutSeconds = jobEventsTimeoutSeconds;
+  }
+
+  public int getMaxQueuedFlights() {
+    return maxQueuedFlights;
+  }
+
+  public void setMaxQueuedFlights(int maxQueuedFlights) {
+    this.maxQueuedFlights = maxQueuedFlights;
+  }
+
+  public int getAdmissionRetryAfterSeconds() {
+    return admissionRetryAfterSeconds;
+  }
+
+  public void setAdmissionRetryAfterSeconds(int admissionRetryAfterSeconds) {
+    this.admissionRetryAfterSeconds = admissionRetryAfterSeconds;
+  }
+
+  public Map<String, FlightPoolConfiguration> getFlightPools() {
+    return flightPools;
+  }
+
+  public void setFlightPools(Map<String, FlightPoolConfiguration> flightPools) {
+    this.flightPools = flightPools;
+  }
+
+  public boolean isFlightJanitorEnabled() {
+    return flightJanitorEnabled;
+  }
+
+  public void setFlightJanitorEnabled(boolean flightJanitorEnabled) {
+    this.flightJanitorEnabled = flightJanitorEnabled;
+  }
+
+  public int getFlightRetentionHours() {
+    return flightRetentionHours;
+  }
+
+  public void setFlightRetentionHours(int flightRetentionHours) {
+    this.flightRetentionHours = flightRetentionHours;
+  }
+
+  public int getFlightJanitorIntervalSeconds() {
+    return flightJanitorIntervalSeconds;
+  }
+
+  public void setFlightJanitorIntervalSeconds(int flightJanitorIntervalSeconds) {
+    this.flightJanitorIntervalSeconds = flightJanitorIntervalSeconds;
+  }
+
+  public int getFlightJanitorBatchSize() {
+    return flightJanitorBatchSize;
+  }
+
+  public void setFlightJanitorBatchSize(int flightJanitorBatchSize) {
+    this.flightJanitorBatchSize = flightJanitorBatchSize;
+  }
+
+  public int getFlightJanitorMaxBatchesPerRun() {
+    return flightJanitorMaxBatchesPerRun;
+  }
+
+  public void setFlightJanitorMaxBatchesPerRun(int flightJanitorMaxBatchesPerRun) {
+    this.flightJanitorMaxBatchesPerRun = flightJanitorMaxBatchesPerRun;
+  }
+
+  public boolean isTracingLogSpans() {
+    return tracingLogSpans;
+  }
+
+  public void setTracingLogSpans(boolean tracingLogSpans) {
+    this.tracingLogSpans = tracingLogSpans;
+  }
+
+  public boolean isCreateFolderAuthorization() {
+    return createFolderAuthorization;
+  }
+
+  public void setCreateFolderAuthorization(boolean createFolderAuthorization) {
+    this.createFolderAuthorization = createFolderAuthorization;
+  }
+
+  public int getPreflightThreads() {
+    return preflightThreads;
+  }
+
+  public void setPreflightThreads(int preflightThreads) {
+    this.preflightThreads = preflightThreads;
+  }
+
+  public int getStatusCheckIntervalSeconds() {
+    return statusCheckIntervalSeconds;
+  }
+
+  public void setStatusCheckIntervalSeconds(int statusCheckIntervalSeconds) {
+    this.statusCheckIntervalSeconds = statusCheckIntervalSeconds;
+  }
+
+  public int getStatusStaleSeconds() {
+    return statusStaleSeconds;
+  }
+
+  public void setStatusStaleSeconds(int statusStaleSeconds) {
+    this.statusStaleSeconds = statusStaleSeconds;
+  }
+
+  public int getMaxFolderTreeSize() {
+    return maxFolderTreeSize;
+  }
+
+  public void setMaxFolderTreeSize(int maxFolderTreeSize) {
+    this.maxFolderTreeSize = maxFolderTreeSize;
+  }
+
+  public int getMaxFolderTreeDepth() {
+    return maxFolderTreeDepth;
+  }
+
+  public void setMaxFolderTreeDepth(int maxFolderTreeDepth) {
+    this.maxFolderTreeDepth = maxFolderTreeDepth;
+  }
+
   @Bean("jdbcTemplate")
   public NamedParameterJdbcTemplate getNamedParameterJdbcTemplate(
-      FolderManagerJdbcConfiguration config) {
-    return new NamedParameterJdbcTemplate(config.getDataSource());
+      FolderManagerJdbcConfiguration config, Tracer tracer) {
+    return new NamedParameterJdbcTemplate(new TracingJdbcTemplate(config.getDataSource(), tracer));
   }
 
   @Bean("objectMapper")
@@ -0,0 +1,76 @@
+package bio.terra.folder.app.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the live state of the folder and Stairway connection pools, tagged by pool name. The
+ * pools are read when metrics are collected, so this never opens a connection itself.
+ */
+@Component
+public class ConnectionPoolMetrics implements MeterBinder {
+  private final FolderManagerJdbcConfiguration folderJdbcConfiguration;
+  private final StairwayJdbcConfiguration stairwayJdbcConfiguration;
+
+  @Autowired
+  public ConnectionPoolMetrics(
+      FolderManagerJdbcConfiguration folderJdbcConfiguration,
+      StairwayJdbcConfiguration stairwayJdbcConfiguration) {
+    this.folderJdbcConfiguration = folderJdbcConfiguration;
+    this.stairwayJdbcConfiguration = stairwayJdbcConfiguration;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bindPool(registry, "folder", folderJdbcConfiguration);
+    bindPool(registry, "stairway", stairwayJdbcConfiguration);
+  }
+
+  private void bindPool(MeterRegistry registry, String poolName, JdbcConfiguration config) {
+    GenericObjectPool<PoolableConnection> pool = config.getConnectionPool();
+    Gauge.builder("db.pool.active", pool, GenericObjectPool::getNumActive)
+        .description("Connections currently borrowed from the pool")
+        .tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("db.pool.idle", pool, GenericObjectPool::getNumIdle)
+        .description("Connections idle in the pool")
+        .tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("db.pool.waiters", pool, GenericObjectPool::getNumWaiters)
+        .description("Threads blocked waiting to borrow a connection")
+        .tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("db.pool.max", pool, GenericObjectPool::getMaxTotal)
+        .description("Maximum number of connections in the pool")
+        .tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("db.pool.borrow.wait.mean", pool, GenericObjectPool::getMeanBorrowWaitTimeMillis)
+        .description("Mean time spent waiting to borrow a connection, over recent borrows")
+        .baseUnit("milliseconds")
+        .tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("db.pool.borrow.wait.max", pool, GenericObjectPool::getMaxBorrowWaitTimeMillis)
+        .description("Longest time any thread has waited to borrow a connection")
+        .baseUnit("milliseconds")
+        .tag("pool", poolName)
+        .register(registry);
+    FunctionCounter.builder("db.pool.borrowed", pool, GenericObjectPool::getBorrowedCount)
+        .description("Connections borrowed from the pool")
+        .tag("pool", poolName)
+        .register(registry);
+    FunctionCounter.builder("db.pool.created", pool, GenericObjectPool::getCreatedCount)
+        .description("Connections opened by the pool")
+        .tag("pool", poolName)
+        .register(registry);
+    FunctionCounter.builder("db.pool.destroyed", pool, GenericObjectPool::getDestroyedCount)
+        .description("Connections closed by the pool, including failed validations")
+        .tag("pool", poolName)
+        .register(registry);
+  }
+}
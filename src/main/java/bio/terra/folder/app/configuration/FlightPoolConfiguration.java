@@ -0,0 +1,40 @@
+package bio.terra.folder.app.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sizing of one Stairway executor pool, and the flight classes that run in it. Bound from
+ * folder.flightPools.&lt;name&gt;.* in ApplicationConfiguration; flights not listed in any pool run
+ * in the default pool sized by folder.maxStairwayThreads and folder.maxQueuedFlights.
+ */
+public class FlightPoolConfiguration {
+  private int threads;
+  private int maxQueued;
+  // Fully qualified names of the Flight classes that run in this pool
+  private List<String> flightClasses = new ArrayList<>();
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  public void setMaxQueued(int maxQueued) {
+    this.maxQueued = maxQueued;
+  }
+
+  public List<String> getFlightClasses() {
+    return flightClasses;
+  }
+
+  public void setFlightClasses(List<String> flightClasses) {
+    this.flightClasses = flightClasses;
+  }
+}
@@ -21,6 +21,15 @@ public class FolderManagerJdbcConfiguration extends JdbcConfiguration {
   // 3. initialize is false; upgrade is false - do nothing to the database
   private boolean initializeOnStart;
   private boolean upgradeOnStart;
+  // Controls how folder writes handle concurrency; see WriteTransactionRunner.
+  private boolean serializableWrites;
+  private int writeRetryAttempts;
+  private long writeRetryBackoffMillis;
+  // Controls the folder metadata cache; see FolderCache.
+  private long cacheMaximumSize;
+  private long cacheExpireAfterWriteSeconds;
+  // How often the NotificationListener checks for Postgres notifications.
+  private long notificationPollMillis;
 
   public boolean isInitializeOnStart() {
     return initializeOnStart;
@@ -38,6 +47,54 @@ public class FolderManagerJdbcConfiguration extends JdbcConfiguration {
     this.upgradeOnStart = upgradeOnStart;
   }
 
+  public boolean isSerializableWrites() {
+    return serializableWrites;
+  }
+
+  public void setSerializableWrites(boolean serializableWrites) {
+    this.serializableWrites = serializableWrites;
+  }
+
+  public int getWriteRetryAttempts() {
+    return writeRetryAttempts;
+  }
+
+  public void setWriteRetryAttempts(int writeRetryAttempts) {
+    this.writeRetryAttempts = writeRetryAttempts;
+  }
+
+  public long getWriteRetryBackoffMillis() {
+    return writeRetryBackoffMillis;
+  }
+
+  public void setWriteRetryBackoffMillis(long writeRetryBackoffMillis) {
+    this.writeRetryBackoffMillis = writeRetryBackoffMillis;
+  }
+
+  public long getCacheMaximumSize() {
+    return cacheMaximumSize;
+  }
+
+  public void setCacheMaximumSize(long cacheMaximumSize) {
+    this.cacheMaximumSize = cacheMaximumSize;
+  }
+
+  public long getCacheExpireAfterWriteSeconds() {
+    return cacheExpireAfterWriteSeconds;
+  }
+
+  public void setCacheExpireAfterWriteSeconds(long cacheExpireAfterWriteSeconds) {
+    this.cacheExpireAfterWriteSeconds = cacheExpireAfterWriteSeconds;
+  }
+
+  public long getNotificationPollMillis() {
+    return notificationPollMillis;
+  }
+
+  public void setNotificationPollMillis(long notificationPollMillis) {
+    this.notificationPollMillis = notificationPollMillis;
+  }
+
   // This bean plus the @EnableTransactionManagement annotation above enables the use of the
   // @Transaction annotation to control the transaction properties of the data source.
   @Bean("transactionManager")
@@ -8,8 +8,8 @@ import org.apache.commons.dbcp2.PoolableConnectionFactory;
 import org.apache.commons.dbcp2.PoolingDataSource;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.commons.pool2.ObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 /** Base class for accessing JDBC configuration properties. */
 public class JdbcConfiguration {
@@ -17,8 +17,20 @@ public class JdbcConfiguration {
   private String username;
   private String password;
 
-  // Not a property
-  private PoolingDataSource<PoolableConnection> dataSource;
+  // Connection pool properties. The defaults apply when a property is not set.
+  private int poolMaxTotal = 8;
+  private int poolMinIdle = 0;
+  private long poolMaxWaitMillis = 30000;
+  private String validationQuery = "SELECT 1";
+  private int validationQueryTimeoutSeconds = 5;
+  private long timeBetweenEvictionRunsMillis = 30000;
+  private long minEvictableIdleTimeMillis = 300000;
+  private boolean poolPreparedStatements = true;
+  private int maxOpenPreparedStatements = 100;
+
+  // Not properties
+  private volatile PoolingDataSource<PoolableConnection> dataSource;
+  private volatile GenericObjectPool<PoolableConnection> connectionPool;
 
   public String getUri() {
     return uri;
@@ -46,6 +58,78 @@ public class JdbcConfiguration {
     this.password = password;
   }
 
+  public int getPoolMaxTotal() {
+    return poolMaxTotal;
+  }
+
+  public void setPoolMaxTotal(int poolMaxTotal) {
+    this.poolMaxTotal = poolMaxTotal;
+  }
+
+  public int getPoolMinIdle() {
+    return poolMinIdle;
+  }
+
+  public void setPoolMinIdle(int poolMinIdle) {
+    this.poolMinIdle = poolMinIdle;
+  }
+
+  public long getPoolMaxWaitMillis() {
+    return poolMaxWaitMillis;
+  }
+
+  public void setPoolMaxWaitMillis(long poolMaxWaitMillis) {
+    this.poolMaxWaitMillis = poolMaxWaitMillis;
+  }
+
+  public String getValidationQuery() {
+    return validationQuery;
+  }
+
+  public void setValidationQuery(String validationQuery) {
+    this.validationQuery = validationQuery;
+  }
+
+  public int getValidationQueryTimeoutSeconds() {
+    return validationQueryTimeoutSeconds;
+  }
+
+  public void setValidationQueryTimeoutSeconds(int validationQueryTimeoutSeconds) {
+    this.validationQueryTimeoutSeconds = validationQueryTimeoutSeconds;
+  }
+
+  public long getTimeBetweenEvictionRunsMillis() {
+    return timeBetweenEvictionRunsMillis;
+  }
+
+  public void setTimeBetweenEvictionRunsMillis(long timeBetweenEvictionRunsMillis) {
+    this.timeBetweenEvictionRunsMillis = timeBetweenEvictionRunsMillis;
+  }
+
+  public long getMinEvictableIdleTimeMillis() {
+    return minEvictableIdleTimeMillis;
+  }
+
+  public void setMinEvictableIdleTimeMillis(long minEvictableIdleTimeMillis) {
+    this.minEvictableIdleTimeMillis = minEvictableIdleTimeMillis;
+  }
+
+  public boolean isPoolPreparedStatements() {
+    return poolPreparedStatements;
+  }
+
+  public void setPoolPreparedStatements(boolean poolPreparedStatements) {
+    this.poolPreparedStatements = poolPreparedStatements;
+  }
+
+  public int getMaxOpenPreparedStatements() {
+    return maxOpenPreparedStatements;
+  }
+
+  public void setMaxOpenPreparedStatements(int maxOpenPreparedStatements) {
+    this.maxOpenPreparedStatements = maxOpenPreparedStatements;
+  }
+
   // Main use of the configuration is this pooling data source object.
   public PoolingDataSource<PoolableConnection> getDataSource() {
     // Lazy allocation of the data source
@@ -55,7 +139,19 @@ public class JdbcConfiguration {
     return dataSource;
   }
 
-  private void configureDataSource() {
+  // The pool behind the data source; exposed so its live state can be published as metrics.
+  public GenericObjectPool<PoolableConnection> getConnectionPool() {
+    if (connectionPool == null) {
+      configureDataSource();
+    }
+    return connectionPool;
+  }
+
+  private synchronized void configureDataSource() {
+    if (dataSource != null) {
+      return;
+    }
+
     Properties props = new Properties();
     props.setProperty("user", getUsername());
     props.setProperty("password", getPassword());
@@ -64,13 +160,29 @@ public class JdbcConfiguration {
 
     PoolableConnectionFactory poolableConnectionFactory =
         new PoolableConnectionFactory(connectionFactory, null);
-
-    ObjectPool<PoolableConnection> connectionPool =
-        new GenericObjectPool<>(poolableConnectionFactory);
-
-    poolableConnectionFactory.setPool(connectionPool);
-
-    dataSource = new PoolingDataSource<>(connectionPool);
+    poolableConnectionFactory.setValidationQuery(getValidationQuery());
+    poolableConnectionFactory.setValidationQueryTimeout(getValidationQueryTimeoutSeconds());
+    poolableConnectionFactory.setPoolStatements(isPoolPreparedStatements());
+    poolableConnectionFactory.setMaxOpenPreparedStatements(getMaxOpenPreparedStatements());
+
+    GenericObjectPoolConfig<PoolableConnection> poolConfig = new GenericObjectPoolConfig<>();
+    poolConfig.setMaxTotal(getPoolMaxTotal());
+    poolConfig.setMaxIdle(getPoolMaxTotal());
+    poolConfig.setMinIdle(getPoolMinIdle());
+    poolConfig.setMaxWaitMillis(getPoolMaxWaitMillis());
+    // Idle connections are validated by the eviction thread rather than on every borrow, which
+    // keeps a validation round trip off the request path.
+    poolConfig.setTestOnBorrow(false);
+    poolConfig.setTestWhileIdle(true);
+    poolConfig.setTimeBetweenEvictionRunsMillis(getTimeBetweenEvictionRunsMillis());
+    poolConfig.setMinEvictableIdleTimeMillis(getMinEvictableIdleTimeMillis());
+
+    GenericObjectPool<PoolableConnection> pool =
+        new GenericObjectPool<>(poolableConnectionFactory, poolConfig);
+    poolableConnectionFactory.setPool(pool);
+
+    connectionPool = pool;
+    dataSource = new PoolingDataSource<>(pool);
   }
 
   @Override
@@ -78,6 +190,9 @@ public class JdbcConfiguration {
     return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
         .append("uri", uri)
         .append("username", username)
+        .append("poolMaxTotal", poolMaxTotal)
+        .append("poolMinIdle", poolMinIdle)
+        .append("poolMaxWaitMillis", poolMaxWaitMillis)
         // .append("password", password) NOTE: password is not printed; that avoids it showing up in
         // logs
         .toString();
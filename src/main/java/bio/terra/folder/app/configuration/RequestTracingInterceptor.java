@@ -0,0 +1,103 @@
+package bio.terra.folder.app.configuration;
+
+import bio.terra.folder.common.utils.TracingUtils;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import java.util.UUID;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Gives each API request an id and runs its handler in a trace span named after the controller
+ * method. The request id is put in the logging MDC and in a request attribute, where the
+ * AuthenticatedUserRequestFactory picks it up, so the request's log lines, its
+ * AuthenticatedUserRequest and the flights it starts all share it.
+ *
+ * <p>For asynchronous handlers (e.g. job event streams) the span stays open until the response
+ * completes, but is only current on the thread that started it.
+ */
+@Component
+public class RequestTracingInterceptor implements AsyncHandlerInterceptor {
+  private static final String SPAN_ATTRIBUTE = RequestTracingInterceptor.class.getName() + ".span";
+  private static final String SCOPE_ATTRIBUTE =
+      RequestTracingInterceptor.class.getName() + ".scope";
+
+  private final Tracer tracer;
+
+  @Autowired
+  public RequestTracingInterceptor(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // The span of an asynchronous request was started by its first dispatch
+    if (!(handler instanceof HandlerMethod)
+        || request.getDispatcherType() == DispatcherType.ASYNC) {
+      return true;
+    }
+    HandlerMethod handlerMethod = (HandlerMethod) handler;
+    String requestId = UUID.randomUUID().toString();
+    request.setAttribute(TracingUtils.REQUEST_ID_ATTRIBUTE, requestId);
+    MDC.put(TracingUtils.REQUEST_ID_MDC_KEY, requestId);
+
+    Span span =
+        tracer
+            .spanBuilder(
+                handlerMethod.getBeanType().getSimpleName()
+                    + "."
+                    + handlerMethod.getMethod().getName())
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute("http.method", request.getMethod())
+            .setAttribute("http.target", request.getRequestURI())
+            .setAttribute("request.id", requestId)
+            .startSpan();
+    request.setAttribute(SPAN_ATTRIBUTE, span);
+    request.setAttribute(SCOPE_ATTRIBUTE, span.makeCurrent());
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    leaveThread(request);
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    leaveThread(request);
+    Span span = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+    if (span == null) {
+      return;
+    }
+    request.removeAttribute(SPAN_ATTRIBUTE);
+    span.setAttribute("http.status_code", response.getStatus());
+    if (ex != null) {
+      TracingUtils.recordError(span, ex);
+    } else if (response.getStatus() >= 500) {
+      span.setStatus(StatusCode.ERROR);
+    }
+    span.end();
+  }
+
+  // Undo what preHandle did to the current thread, which the container will reuse
+  private void leaveThread(HttpServletRequest request) {
+    Scope scope = (Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+    if (scope != null) {
+      request.removeAttribute(SCOPE_ATTRIBUTE);
+      scope.close();
+    }
+    MDC.remove(TracingUtils.REQUEST_ID_MDC_KEY);
+  }
+}
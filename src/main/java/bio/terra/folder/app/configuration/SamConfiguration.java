@@ -9,6 +9,24 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "sam")
 public class SamConfiguration {
   private String basePath;
+  // Idle connections to Sam kept open, and for how long
+  private int connectionPoolMaxIdle;
+  private long connectionKeepAliveSeconds;
+  // Bound and lifetime of the authorization decision cache
+  private long decisionCacheMaximumSize;
+  private long decisionCacheExpireSeconds;
+  // Most Sam checks that batch authorizations run at once, across all batches
+  private int batchConcurrency;
+  // How long an expired decision may still be used while Sam cannot be reached; 0 to never
+  private long decisionCacheStaleGraceSeconds;
+  // Deadline for a whole call to Sam
+  private long requestTimeoutMillis;
+  // Bulkhead: most calls to Sam in flight at once, and how long a call waits for its turn
+  private int maxConcurrentRequests;
+  private long bulkheadWaitMillis;
+  // Circuit breaker: consecutive failures that open it, and how long it stays open
+  private int circuitFailureThreshold;
+  private long circuitOpenMillis;
 
   public String getBasePath() {
     return basePath;
@@ -17,4 +35,92 @@ public class SamConfiguration {
   public void setBasePath(String basePath) {
     this.basePath = basePath;
   }
+
+  public int getConnectionPoolMaxIdle() {
+    return connectionPoolMaxIdle;
+  }
+
+  public void setConnectionPoolMaxIdle(int connectionPoolMaxIdle) {
+    this.connectionPoolMaxIdle = connectionPoolMaxIdle;
+  }
+
+  public long getConnectionKeepAliveSeconds() {
+    return connectionKeepAliveSeconds;
+  }
+
+  public void setConnectionKeepAliveSeconds(long connectionKeepAliveSeconds) {
+    this.connectionKeepAliveSeconds = connectionKeepAliveSeconds;
+  }
+
+  public long getDecisionCacheMaximumSize() {
+    return decisionCacheMaximumSize;
+  }
+
+  public void setDecisionCacheMaximumSize(long decisionCacheMaximumSize) {
+    this.decisionCacheMaximumSize = decisionCacheMaximumSize;
+  }
+
+  public long getDecisionCacheExpireSeconds() {
+    return decisionCacheExpireSeconds;
+  }
+
+  public void setDecisionCacheExpireSeconds(long decisionCacheExpireSeconds) {
+    this.decisionCacheExpireSeconds = decisionCacheExpireSeconds;
+  }
+
+  public int getBatchConcurrency() {
+    return batchConcurrency;
+  }
+
+  public void setBatchConcurrency(int batchConcurrency) {
+    this.batchConcurrency = batchConcurrency;
+  }
+
+  public long getDecisionCacheStaleGraceSeconds() {
+    return decisionCacheStaleGraceSeconds;
+  }
+
+  public void setDecisionCacheStaleGraceSeconds(long decisionCacheStaleGraceSeconds) {
+    this.decisionCacheStaleGraceSeconds = decisionCacheStaleGraceSeconds;
+  }
+
+  public long getRequestTimeoutMillis() {
+    return requestTimeoutMillis;
+  }
+
+  public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+    this.requestTimeoutMillis = requestTimeoutMillis;
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  public long getBulkheadWaitMillis() {
+    return bulkheadWaitMillis;
+  }
+
+  public void setBulkheadWaitMillis(long bulkheadWaitMillis) {
+    this.bulkheadWaitMillis = bulkheadWaitMillis;
+  }
+
+  public int getCircuitFailureThreshold() {
+    return circuitFailureThreshold;
+  }
+
+  public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+    this.circuitFailureThreshold = circuitFailureThreshold;
+  }
+
+  public long getCircuitOpenMillis() {
+    return circuitOpenMillis;
+  }
+
+  public void setCircuitOpenMillis(long circuitOpenMillis) {
+    this.circuitOpenMillis = circuitOpenMillis;
+  }
 }
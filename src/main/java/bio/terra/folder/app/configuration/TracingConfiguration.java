@@ -0,0 +1,51 @@
+package bio.terra.folder.app.configuration;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up OpenTelemetry tracing. Spans cover API handlers, request validation, Stairway submit and
+ * wait, flight steps and folder database statements; the trace context is carried to flights
+ * through their input FlightMap, so flight work links back to the request that started it.
+ *
+ * <p>Finished spans are written to the log when folder.tracingLogSpans is set, which only the dev
+ * profile does; otherwise they are recorded in the trace context but not exported. Nothing is sent
+ * off the host.
+ */
+@Configuration
+public class TracingConfiguration {
+  public static final String INSTRUMENTATION_NAME = "bio.terra.folder";
+
+  @Bean(destroyMethod = "shutdown")
+  public SdkTracerProvider tracerProvider(ApplicationConfiguration appConfig) {
+    SdkTracerProviderBuilder builder = SdkTracerProvider.builder();
+    if (appConfig.isTracingLogSpans()) {
+      builder.addSpanProcessor(BatchSpanProcessor.builder(new LoggingSpanExporter()).build());
+    }
+    return builder.build();
+  }
+
+  // Not registered as the global instance, so that several application contexts (as in tests)
+  // can each have their own.
+  @Bean
+  public OpenTelemetry openTelemetry(SdkTracerProvider tracerProvider) {
+    return OpenTelemetrySdk.builder()
+        .setTracerProvider(tracerProvider)
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build();
+  }
+
+  @Bean
+  public Tracer tracer(OpenTelemetry openTelemetry) {
+    return openTelemetry.getTracer(INSTRUMENTATION_NAME);
+  }
+}
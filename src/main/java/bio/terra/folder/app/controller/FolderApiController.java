@@ -2,7 +2,11 @@ package bio.terra.folder.app.controller;
 
 import bio.terra.folder.generated.controller.FolderApi;
 import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreateFolderTreeBody;
 import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.folder.generated.model.FolderDescendantList;
+import bio.terra.folder.generated.model.JobList;
 import bio.terra.folder.generated.model.JobModel;
 import bio.terra.folder.service.folder.FolderService;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
@@ -16,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class FolderApiController implements FolderApi {
@@ -47,6 +52,32 @@ public class FolderApiController implements FolderApi {
         folderService.createFolder(createFolderBody, getAuthenticatedInfo()), HttpStatus.OK);
   }
 
+  @Override
+  public ResponseEntity<CreatedFolderTree> createFolderTree(
+      @RequestBody CreateFolderTreeBody createFolderTreeBody) {
+    return new ResponseEntity<>(
+        folderService.createFolderTree(createFolderTreeBody, getAuthenticatedInfo()),
+        HttpStatus.OK);
+  }
+
+  @Override
+  public ResponseEntity<FolderDescendantList> listFolderDescendants(
+      @PathVariable("id") String id,
+      @RequestParam(value = "limit", required = false, defaultValue = "100") Integer limit,
+      @RequestParam(value = "pageToken", required = false) String pageToken) {
+    return new ResponseEntity<>(
+        folderService.listFolderDescendants(id, limit, pageToken, getAuthenticatedInfo()),
+        HttpStatus.OK);
+  }
+
+  @Override
+  public ResponseEntity<JobList> enumerateJobs(
+      @RequestParam(value = "limit", required = false, defaultValue = "100") Integer limit,
+      @RequestParam(value = "pageToken", required = false) String pageToken) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    return new ResponseEntity<>(jobService.listJobs(limit, pageToken, userReq), HttpStatus.OK);
+  }
+
   @Override
   public ResponseEntity<Void> deleteJob(@PathVariable("id") String id) {
     AuthenticatedUserRequest userReq = getAuthenticatedInfo();
@@ -55,9 +86,12 @@ public class FolderApiController implements FolderApi {
   }
 
   @Override
-  public ResponseEntity<JobModel> pollAsyncJob(@PathVariable("id") String id) {
+  public ResponseEntity<JobModel> pollAsyncJob(
+      @PathVariable("id") String id,
+      @RequestParam(value = "waitSeconds", required = false, defaultValue = "0")
+          Integer waitSeconds) {
     AuthenticatedUserRequest userReq = getAuthenticatedInfo();
-    JobModel job = jobService.retrieveJob(id, userReq);
+    JobModel job = jobService.retrieveJob(id, userReq, waitSeconds);
     return new ResponseEntity<JobModel>(job, HttpStatus.valueOf(job.getStatusCode()));
   }
 
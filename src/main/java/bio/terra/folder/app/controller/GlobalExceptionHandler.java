@@ -1,10 +1,12 @@
 package bio.terra.folder.app.controller;
 
 import bio.terra.folder.common.exception.ErrorReportException;
+import bio.terra.folder.common.exception.TooManyRequestsException;
 import bio.terra.folder.generated.model.ErrorReport;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -26,6 +28,16 @@ public class GlobalExceptionHandler {
     return buildErrorReport(ex, ex.getStatusCode(), ex.getCauses());
   }
 
+  // -- Too many requests - tell the client when to come back --
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ErrorReport> tooManyRequestsHandler(TooManyRequestsException ex) {
+    ResponseEntity<ErrorReport> report =
+        buildErrorReport(ex, ex.getStatusCode(), ex.getCauses());
+    return ResponseEntity.status(report.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, Integer.toString(ex.getRetryAfterSeconds()))
+        .body(report.getBody());
+  }
+
   // -- validation exceptions - we don't control the exception raised
   @ExceptionHandler({
     MethodArgumentNotValidException.class,
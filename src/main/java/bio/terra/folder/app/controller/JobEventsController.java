@@ -0,0 +1,86 @@
+package bio.terra.folder.app.controller;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.generated.model.JobModel;
+import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import bio.terra.folder.service.iam.AuthenticatedUserRequestFactory;
+import bio.terra.folder.service.job.JobService;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events stream of a job's status. It is not part of the generated API because the
+ * generator cannot express a streaming response. The stream sends the job's current JobModel as a
+ * "job" event, then again once the job finishes, and then closes. A job that is already finished
+ * gets a single event. If the job is still running when the stream times out, the stream just
+ * closes and clients reconnect.
+ */
+@Controller
+public class JobEventsController {
+  private static final String JOB_EVENT = "job";
+
+  private final JobService jobService;
+  private final ApplicationConfiguration appConfig;
+  private final AuthenticatedUserRequestFactory authenticatedUserRequestFactory;
+  private final HttpServletRequest request;
+
+  @Autowired
+  public JobEventsController(
+      JobService jobService,
+      ApplicationConfiguration appConfig,
+      AuthenticatedUserRequestFactory authenticatedUserRequestFactory,
+      HttpServletRequest request) {
+    this.jobService = jobService;
+    this.appConfig = appConfig;
+    this.authenticatedUserRequestFactory = authenticatedUserRequestFactory;
+    this.request = request;
+  }
+
+  @GetMapping(value = "/api/v1/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJobEvents(@PathVariable("id") String id) {
+    AuthenticatedUserRequest userReq = authenticatedUserRequestFactory.from(request);
+    // Unknown or unauthorized jobs throw here, before the stream opens, so the global exception
+    // handler reports them as usual.
+    CompletableFuture<JobModel> jobDone = jobService.whenJobDone(id, userReq);
+
+    SseEmitter emitter =
+        new SseEmitter(TimeUnit.SECONDS.toMillis(appConfig.getJobEventsTimeoutSeconds()));
+    emitter.onTimeout(
+        () -> {
+          jobDone.cancel(false);
+          emitter.complete();
+        });
+    emitter.onCompletion(() -> jobDone.cancel(false));
+
+    if (!jobDone.isDone()) {
+      sendJob(emitter, jobService.retrieveJob(id, userReq));
+    }
+    jobDone.whenComplete(
+        (jobModel, ex) -> {
+          if (jobModel != null) {
+            sendJob(emitter, jobModel);
+            emitter.complete();
+          } else if (!jobDone.isCancelled()) {
+            emitter.completeWithError(ex);
+          }
+        });
+    return emitter;
+  }
+
+  private void sendJob(SseEmitter emitter, JobModel jobModel) {
+    try {
+      emitter.send(SseEmitter.event().name(JOB_EVENT).id(jobModel.getId()).data(jobModel));
+    } catch (IOException ex) {
+      // The client went away; stop streaming to it
+      emitter.completeWithError(ex);
+    }
+  }
+}
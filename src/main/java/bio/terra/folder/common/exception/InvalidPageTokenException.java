@@ -0,0 +1,15 @@
+package bio.terra.folder.common.exception;
+
+public class InvalidPageTokenException extends BadRequestException {
+  public InvalidPageTokenException(String message) {
+    super(message);
+  }
+
+  public InvalidPageTokenException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public InvalidPageTokenException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -0,0 +1,24 @@
+package bio.terra.folder.common.exception;
+
+// This base class has data that corresponds to the ErrorReport model generated from
+// the OpenAPI yaml. The global exception handler auto-magically converts exceptions
+// of this base class into the appropriate ErrorReport REST response.
+
+import java.util.List;
+import org.springframework.http.HttpStatus;
+
+public abstract class ServiceUnavailableException extends ErrorReportException {
+  private static final HttpStatus thisStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+  public ServiceUnavailableException(String message) {
+    super(message, null, thisStatus);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause) {
+    super(message, cause, null, thisStatus);
+  }
+
+  public ServiceUnavailableException(String message, List<String> causes) {
+    super(message, causes, thisStatus);
+  }
+}
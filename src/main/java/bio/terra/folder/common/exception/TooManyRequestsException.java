@@ -0,0 +1,27 @@
+package bio.terra.folder.common.exception;
+
+// This base class has data that corresponds to the ErrorReport model generated from
+// the OpenAPI yaml. The global exception handler auto-magically converts exceptions
+// of this base class into the appropriate ErrorReport REST response, with a Retry-After
+// header telling the client when to try again.
+
+import org.springframework.http.HttpStatus;
+
+public abstract class TooManyRequestsException extends ErrorReportException {
+  private static final HttpStatus thisStatus = HttpStatus.TOO_MANY_REQUESTS;
+  private final int retryAfterSeconds;
+
+  public TooManyRequestsException(String message, int retryAfterSeconds) {
+    super(message, null, thisStatus);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public TooManyRequestsException(String message, Throwable cause, int retryAfterSeconds) {
+    super(message, cause, null, thisStatus);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public int getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,15 @@
+package bio.terra.folder.common.exception;
+
+public class ValidationException extends BadRequestException {
+  public ValidationException(String message) {
+    super(message);
+  }
+
+  public ValidationException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ValidationException(Throwable cause) {
+    super(cause);
+  }
+}
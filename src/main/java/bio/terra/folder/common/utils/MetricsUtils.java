@@ -0,0 +1,88 @@
+package bio.terra.folder.common.utils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common methods for timing service operations. Every timer is tagged with the operation's outcome
+ * and publishes a latency histogram, so the Prometheus count of each outcome doubles as its outcome
+ * counter and percentiles can be aggregated across instances.
+ */
+public final class MetricsUtils {
+  public static final String OUTCOME_SUCCESS = "success";
+  // The operation completed but reported failure, e.g. a step asking to be retried
+  public static final String OUTCOME_FAILURE = "failure";
+  // The operation threw
+  public static final String OUTCOME_ERROR = "error";
+
+  // Timers by registry, then by name, tags and outcome. Registering a timer rebuilds its id and
+  // histogram configuration before finding the existing one, which costs more than the recording.
+  // Registries are held weakly so that closed test contexts can be collected.
+  private static final LoadingCache<MeterRegistry, ConcurrentMap<List<Object>, Timer>> timers =
+      Caffeine.newBuilder().weakKeys().build(registry -> new ConcurrentHashMap<>());
+
+  private MetricsUtils() {}
+
+  /** An operation to time, which may throw a checked exception. */
+  @FunctionalInterface
+  public interface TimedOperation<T, E extends Throwable> {
+    T run() throws E;
+  }
+
+  /**
+   * Run an operation, recording its latency in the named timer. The outcome is success if the
+   * operation returns and error if it throws.
+   *
+   * @param registry meter registry
+   * @param name timer name
+   * @param tags tags identifying the operation
+   * @param operation operation to run
+   * @return the operation's result
+   */
+  public static <T, E extends Throwable> T time(
+      MeterRegistry registry, String name, Iterable<Tag> tags, TimedOperation<T, E> operation)
+      throws E {
+    long start = System.nanoTime();
+    String outcome = OUTCOME_ERROR;
+    try {
+      T result = operation.run();
+      outcome = OUTCOME_SUCCESS;
+      return result;
+    } finally {
+      record(registry, name, tags, outcome, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Record one operation's latency in the named timer.
+   *
+   * @param registry meter registry
+   * @param name timer name
+   * @param tags tags identifying the operation
+   * @param outcome one of the OUTCOME constants
+   * @param elapsedNanos how long the operation took
+   */
+  public static void record(
+      MeterRegistry registry, String name, Iterable<Tag> tags, String outcome, long elapsedNanos) {
+    Tags operationTags = Tags.of(tags);
+    timers
+        .get(registry)
+        .computeIfAbsent(
+            Arrays.asList(name, operationTags, outcome),
+            key ->
+                Timer.builder(name)
+                    .tags(operationTags.and("outcome", outcome))
+                    .publishPercentileHistogram()
+                    .register(registry))
+        .record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,69 @@
+package bio.terra.folder.common.utils;
+
+import bio.terra.folder.common.exception.InvalidPageTokenException;
+import bio.terra.folder.common.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset page tokens. A token is the sort key of the last item on a page, encoded so that callers
+ * treat it as opaque. The next page starts strictly after that key.
+ */
+public final class PageTokenUtils {
+  public static final int MAX_PAGE_LIMIT = 1000;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private PageTokenUtils() {}
+
+  /**
+   * Check a requested page size against the bounds in the API definition
+   *
+   * @param limit requested page size
+   */
+  public static void validateLimit(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+      throw new ValidationException(
+          "Page limit must be between 1 and " + MAX_PAGE_LIMIT + "; got " + limit);
+    }
+  }
+
+  /**
+   * Encode the sort key of the last item on a page
+   *
+   * @param keyParts sort key columns, in sort order
+   * @return opaque page token
+   */
+  public static String encode(List<String> keyParts) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(keyParts);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    } catch (JsonProcessingException ex) {
+      throw new InvalidPageTokenException("Failed to encode page token", ex);
+    }
+  }
+
+  /**
+   * Decode a page token produced by {@link #encode(List)}
+   *
+   * @param pageToken opaque page token
+   * @param expectedParts number of sort key columns the caller expects
+   * @return sort key columns, in sort order
+   */
+  public static List<String> decode(String pageToken, int expectedParts) {
+    try {
+      byte[] json = Base64.getUrlDecoder().decode(pageToken.getBytes(StandardCharsets.US_ASCII));
+      List<String> keyParts = objectMapper.readValue(json, new TypeReference<List<String>>() {});
+      if (keyParts == null || keyParts.size() != expectedParts) {
+        throw new InvalidPageTokenException("Invalid page token: " + pageToken);
+      }
+      return keyParts;
+    } catch (IllegalArgumentException | IOException ex) {
+      throw new InvalidPageTokenException("Invalid page token: " + pageToken, ex);
+    }
+  }
+}
@@ -7,4 +7,8 @@ public class SamUtils {
   public static String SAM_FOLDER_MANAGER_RESOURCE = "mc-folder-manager";
   public static String SAM_FOLDER_MANAGER_LIST_JOBS_ACTION = "list-job";
   public static String SAM_FOLDER_MANAGER_DELETE_JOBS_ACTION = "delete-job";
+  // On the folder manager for top-level folders, and on the parent folder for the rest
+  public static String SAM_CREATE_FOLDER_ACTION = "create-folder";
+  // On the folder being read, covering its contents and descendants
+  public static String SAM_READ_FOLDER_ACTION = "read";
 }
@@ -0,0 +1,51 @@
+package bio.terra.folder.common.utils;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/** Common methods for tracing service operations. */
+public final class TracingUtils {
+  // Logging MDC key for the id of the API request being served, on request and flight threads
+  public static final String REQUEST_ID_MDC_KEY = "reqId";
+  // Servlet request attribute holding the request's id, so every component sees the same one
+  public static final String REQUEST_ID_ATTRIBUTE = "bio.terra.folder.requestId";
+
+  private TracingUtils() {}
+
+  /** An operation to trace, which may throw a checked exception. */
+  @FunctionalInterface
+  public interface TracedOperation<T, E extends Exception> {
+    T run() throws E;
+  }
+
+  /**
+   * Run an operation in a new span, a child of the current one. The span is current while the
+   * operation runs, so spans it starts are nested beneath it. If the operation throws, the
+   * exception is recorded on the span and the span is marked as an error.
+   *
+   * @param tracer tracer
+   * @param spanName span name
+   * @param operation operation to run
+   * @return the operation's result
+   */
+  public static <T, E extends Exception> T inSpan(
+      Tracer tracer, String spanName, TracedOperation<T, E> operation) throws E {
+    Span span = tracer.spanBuilder(spanName).startSpan();
+    try (Scope scope = span.makeCurrent()) {
+      return operation.run();
+    } catch (Throwable ex) {
+      // Rethrowing the caught exception as-is only throws what the operation can throw
+      recordError(span, ex);
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+
+  public static void recordError(Span span, Throwable ex) {
+    span.recordException(ex);
+    span.setStatus(StatusCode.ERROR);
+  }
+}
@@ -0,0 +1,42 @@
+package bio.terra.folder.db;
+
+import bio.terra.folder.common.utils.MetricsUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public FolderDao method in the folder.dao.query timer, tagged by method name and
+ * outcome. The timing is applied by the Spring proxy around the DAO, so a DAO method that calls
+ * another one, as moveFolder does getAncestorIds, is counted once under the outer method.
+ *
+ * <p>It runs outside the transaction advice, so the time includes the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DaoTimingAspect {
+  private static final String QUERY_TIMER = "folder.dao.query";
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public DaoTimingAspect(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around("execution(public * bio.terra.folder.db.FolderDao.*(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    return MetricsUtils.time(
+        meterRegistry,
+        QUERY_TIMER,
+        Tags.of("query", joinPoint.getSignature().getName()),
+        joinPoint::proceed);
+  }
+}
@@ -0,0 +1,63 @@
+package bio.terra.folder.db;
+
+import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, time-limited cache of folder rows, shared by all readers on this instance.
+ *
+ * <p>Writers invalidate entries locally and publish the folder id on the Postgres NOTIFY channel
+ * {@link #INVALIDATION_CHANNEL} inside their transaction, so other instances hear about the change
+ * only once it commits. The {@link NotificationListener} drops the notified entries, and clears the
+ * whole cache when it reconnects, since it may have missed notifications; the TTL bounds staleness
+ * in any case.
+ */
+@Component
+public class FolderCache implements MeterBinder {
+  public static final String INVALIDATION_CHANNEL = "folder_cache_invalidation";
+
+  private final Cache<String, FolderRecord> cache;
+
+  @Autowired
+  public FolderCache(
+      FolderManagerJdbcConfiguration jdbcConfiguration,
+      NotificationListener notificationListener) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(jdbcConfiguration.getCacheMaximumSize())
+            .expireAfterWrite(jdbcConfiguration.getCacheExpireAfterWriteSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    // Anything that changed while the listener was not connected may be stale
+    notificationListener.subscribe(INVALIDATION_CHANNEL, this::invalidate, this::invalidateAll);
+  }
+
+  /**
+   * Return the cached folder, loading it on a miss. The loader returns null for a folder that does
+   * not exist; misses are not cached.
+   */
+  public FolderRecord get(String folderId, Function<String, FolderRecord> loader) {
+    return cache.get(folderId, loader);
+  }
+
+  public void invalidate(String folderId) {
+    cache.invalidate(folderId);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "folder");
+  }
+}
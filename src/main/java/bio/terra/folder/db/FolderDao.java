@@ -1,28 +1,51 @@
 package bio.terra.folder.db;
 
 import bio.terra.folder.db.exception.FolderNotFoundException;
+import bio.terra.folder.db.exception.InvalidFolderMoveException;
+import bio.terra.folder.generated.model.FolderDescription;
+import bio.terra.folder.service.folder.exception.NameConflictException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.openapitools.jackson.nullable.JsonNullable;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class FolderDao {
+  // Unique constraint on (folder_name, parent_folder_id)
+  private static final String NAME_CONSTRAINT = "subfolder_uniqueness_constraint";
+
   private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final WriteTransactionRunner writeTransactionRunner;
+  private final FolderCache folderCache;
 
   @Autowired
-  public FolderDao(NamedParameterJdbcTemplate jdbcTemplate) {
+  public FolderDao(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      WriteTransactionRunner writeTransactionRunner,
+      FolderCache folderCache) {
     this.jdbcTemplate = jdbcTemplate;
+    this.writeTransactionRunner = writeTransactionRunner;
+    this.folderCache = folderCache;
   }
 
-  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
+  // Names of folders sharing a parent are kept unique by the subfolder uniqueness constraint
+  // rather than by transaction isolation; a violation surfaces as NameConflictException.
+  // Top-level folders have a NULL parent, which the constraint treats as distinct, so their names
+  // are not required to be unique.
   public void createFolder(
       String folderId,
       String folderName,
@@ -40,61 +63,334 @@ public class FolderDao {
     paramMap.put("parent_folder_id", parentFolderId.orElse(null));
     paramMap.put("spend_profile_id", spendProfile.orElse(null));
 
-    jdbcTemplate.update(sql, paramMap);
+    // The new folder is its own ancestor at depth 0 and inherits every ancestor of its parent
+    String closureSql =
+        "INSERT INTO folder_closure (ancestor_id, descendant_id, depth)"
+            + " SELECT ancestor_id, :folder_id, depth + 1 FROM folder_closure"
+            + " WHERE descendant_id = :parent_folder_id"
+            + " UNION ALL SELECT :folder_id, :folder_id, 0";
+
+    try {
+      writeTransactionRunner.run(
+          () -> {
+            jdbcTemplate.update(sql, paramMap);
+            jdbcTemplate.update(closureSql, paramMap);
+          });
+    } catch (DuplicateKeyException e) {
+      if (!isNameConflict(e)) {
+        throw e;
+      }
+      throw new NameConflictException(
+          "Folder with name "
+              + folderName
+              + " already exists inside "
+              + parentFolderId.orElse("top-level folder"),
+          e);
+    }
+  }
+
+  // Creates a batch of folders in one transaction using JDBC batch inserts. Parents must appear
+  // before their children in the list, so that each child's closure rows can be derived from its
+  // parent's.
+  public void createFolders(List<FolderRecord> folders) {
+    String sql =
+        "INSERT INTO folder (folder_id, folder_name, parent_folder_id, spend_profile_id, spend_profile_inherited)"
+            + " values (:folder_id, :folder_name, :parent_folder_id, :spend_profile_id, :spend_profile_inherited)";
+    String closureSql =
+        "INSERT INTO folder_closure (ancestor_id, descendant_id, depth)"
+            + " SELECT ancestor_id, :folder_id, depth + 1 FROM folder_closure"
+            + " WHERE descendant_id = :parent_folder_id"
+            + " UNION ALL SELECT :folder_id, :folder_id, 0";
+
+    MapSqlParameterSource[] batchParams = new MapSqlParameterSource[folders.size()];
+    for (int i = 0; i < folders.size(); i++) {
+      FolderRecord folder = folders.get(i);
+      batchParams[i] =
+          new MapSqlParameterSource()
+              .addValue("folder_id", folder.getFolderId())
+              .addValue("folder_name", folder.getFolderName())
+              .addValue("parent_folder_id", folder.getParentFolderId())
+              .addValue("spend_profile_id", folder.getSpendProfileId())
+              .addValue("spend_profile_inherited", folder.isSpendProfileInherited());
+    }
+
+    try {
+      writeTransactionRunner.run(
+          () -> {
+            jdbcTemplate.batchUpdate(sql, batchParams);
+            jdbcTemplate.batchUpdate(closureSql, batchParams);
+          });
+    } catch (DuplicateKeyException e) {
+      if (!isNameConflict(e)) {
+        throw e;
+      }
+      throw new NameConflictException("A folder in the tree has a name that is already in use", e);
+    }
+  }
+
+  // Deletes a batch of empty folders, along with any of their descendants in the same batch.
+  public int deleteFolders(List<String> folderIds) {
+    if (folderIds.isEmpty()) {
+      return 0;
+    }
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("ids", folderIds);
+    int rowsAffected =
+        writeTransactionRunner.execute(
+            () -> {
+              notifyInvalidation(folderIds);
+              jdbcTemplate.update(
+                  "DELETE FROM folder_closure WHERE descendant_id IN (:ids)", paramMap);
+              return jdbcTemplate.update("DELETE FROM folder WHERE folder_id IN (:ids)", paramMap);
+            });
+    folderIds.forEach(folderCache::invalidate);
+    return rowsAffected;
   }
 
-  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
   public boolean deleteFolder(String folderId) {
-    String sql = "DELETE FROM folder WHERE folder_id = :id";
     Map<String, Object> paramMap = new HashMap<>();
     paramMap.put("id", folderId);
-    int rowsAffected = jdbcTemplate.update(sql, paramMap);
+    String sql = "DELETE FROM folder WHERE folder_id = :id";
+    int rowsAffected =
+        writeTransactionRunner.execute(
+            () -> {
+              // Only empty folders can be deleted, so the folder's closure rows are the ones
+              // linking it to its ancestors.
+              jdbcTemplate.update("DELETE FROM folder_closure WHERE descendant_id = :id", paramMap);
+              notifyInvalidation(Collections.singletonList(folderId));
+              return jdbcTemplate.update(sql, paramMap);
+            });
+    folderCache.invalidate(folderId);
     return rowsAffected > 0;
   }
 
-  public String getSpendProfileFromFolder(String folderId) {
-    String sql = "SELECT spend_profile_id from folder WHERE folder_id = :id";
+  // Moves a folder and its whole subtree under a new parent, or to the top level if the new parent
+  // is null. This stays SERIALIZABLE: the cycle check reads rows a concurrent move could change.
+  // Concurrent moves that conflict are retried by the write runner.
+  public void moveFolder(String folderId, String newParentFolderId) {
+    writeTransactionRunner.runSerializable(() -> moveFolderWorker(folderId, newParentFolderId));
+  }
+
+  private void moveFolderWorker(String folderId, String newParentFolderId) {
     Map<String, Object> paramMap = new HashMap<>();
     paramMap.put("id", folderId);
-    try {
-      return jdbcTemplate.queryForObject(sql, paramMap, String.class);
-    } catch (EmptyResultDataAccessException e) {
+    paramMap.put("new_parent_id", newParentFolderId);
+
+    if (newParentFolderId != null
+        && (folderId.equals(newParentFolderId)
+            || getAncestorIds(newParentFolderId).contains(folderId))) {
+      throw new InvalidFolderMoveException(
+          "Cannot move folder " + folderId + " inside itself or one of its descendants");
+    }
+
+    String updateSql =
+        "UPDATE folder SET parent_folder_id = :new_parent_id WHERE folder_id = :id";
+    if (jdbcTemplate.update(updateSql, paramMap) == 0) {
+      throw new FolderNotFoundException("Folder not found in DB: " + folderId);
+    }
+    notifyInvalidation(Collections.singletonList(folderId));
+    folderCache.invalidate(folderId);
+
+    // Detach the subtree from its old ancestors...
+    String detachSql =
+        "DELETE FROM folder_closure"
+            + " WHERE descendant_id IN"
+            + " (SELECT descendant_id FROM folder_closure WHERE ancestor_id = :id)"
+            + " AND ancestor_id NOT IN"
+            + " (SELECT descendant_id FROM folder_closure WHERE ancestor_id = :id)";
+    jdbcTemplate.update(detachSql, paramMap);
+
+    // ...and attach it to every ancestor of the new parent
+    if (newParentFolderId != null) {
+      String attachSql =
+          "INSERT INTO folder_closure (ancestor_id, descendant_id, depth)"
+              + " SELECT up.ancestor_id, down.descendant_id, up.depth + down.depth + 1"
+              + " FROM folder_closure up CROSS JOIN folder_closure down"
+              + " WHERE up.descendant_id = :new_parent_id AND down.ancestor_id = :id";
+      jdbcTemplate.update(attachSql, paramMap);
+    }
+  }
+
+  // Returns the ids of a folder's ancestors, nearest first, not including the folder itself.
+  public List<String> getAncestorIds(String folderId) {
+    String sql =
+        "SELECT ancestor_id FROM folder_closure WHERE descendant_id = :id AND depth > 0"
+            + " ORDER BY depth";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("id", folderId);
+    return jdbcTemplate.queryForList(sql, paramMap, String.class);
+  }
+
+  // Returns the ids of all folders below a folder, shallowest first, not including the folder
+  // itself.
+  public List<String> getDescendantIds(String folderId) {
+    String sql =
+        "SELECT descendant_id FROM folder_closure WHERE ancestor_id = :id AND depth > 0"
+            + " ORDER BY depth";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("id", folderId);
+    return jdbcTemplate.queryForList(sql, paramMap, String.class);
+  }
+
+  // Returns the depth of a folder in the hierarchy; top-level folders have depth 0.
+  public int getFolderDepth(String folderId) {
+    String sql = "SELECT MAX(depth) FROM folder_closure WHERE descendant_id = :id";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("id", folderId);
+    Integer depth = jdbcTemplate.queryForObject(sql, paramMap, Integer.class);
+    if (depth == null) {
+      throw new FolderNotFoundException("Folder not found in DB: " + folderId);
+    }
+    return depth;
+  }
+
+  /**
+   * Returns one page of the folders below a folder, ordered by (depth, folder_id). Paging is
+   * keyset based: pass the sort key of the last folder on the previous page, or nulls for the first
+   * page. The sort key matches the (ancestor_id, depth, descendant_id) closure index, so each page
+   * is a single range scan on that index and its cost does not grow with the page number.
+   */
+  public List<FolderDescription> listDescendants(
+      String folderId, Integer afterDepth, String afterId, int limit) {
+    StringBuilder sql =
+        new StringBuilder(
+            "SELECT f.folder_id, f.folder_name, f.parent_folder_id, f.spend_profile_id, c.depth"
+                + " FROM folder_closure c JOIN folder f ON f.folder_id = c.descendant_id"
+                + " WHERE c.ancestor_id = :id AND c.depth > 0");
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("id", folderId);
+    paramMap.put("limit", limit);
+    if (afterDepth != null) {
+      sql.append(
+          " AND c.depth >= :after_depth"
+              + " AND (c.depth, c.descendant_id) > (:after_depth, :after_id)");
+      paramMap.put("after_depth", afterDepth);
+      paramMap.put("after_id", afterId);
+    }
+    sql.append(" ORDER BY c.depth, c.descendant_id LIMIT :limit");
+
+    return jdbcTemplate.query(
+        sql.toString(),
+        paramMap,
+        (rs, rowNum) ->
+            new FolderDescription()
+                .id(rs.getString("folder_id"))
+                .name(rs.getString("folder_name"))
+                .parentFolderId(rs.getString("parent_folder_id"))
+                .spendProfile(rs.getString("spend_profile_id"))
+                .depth(rs.getInt("depth")));
+  }
+
+  // Returns a folder's row, from the folder cache when possible.
+  public FolderRecord getFolder(String folderId) {
+    FolderRecord folder = folderCache.get(folderId, this::readFolder);
+    if (folder == null) {
       throw new FolderNotFoundException("Folder not found in DB: " + folderId);
     }
+    return folder;
+  }
+
+  public String getSpendProfileFromFolder(String folderId) {
+    return getFolder(folderId).getSpendProfileId();
   }
 
   public boolean getSpendProfileInheritedFromFolder(String folderId) {
-    String sql = "SELECT spend_profile_inherited from folder WHERE folder_id = :id";
+    return getFolder(folderId).isSpendProfileInherited();
+  }
+
+  private FolderRecord readFolder(String folderId) {
+    String sql =
+        "SELECT folder_id, folder_name, parent_folder_id, spend_profile_id, spend_profile_inherited"
+            + " FROM folder WHERE folder_id = :id";
     Map<String, Object> paramMap = new HashMap<>();
     paramMap.put("id", folderId);
     try {
-      return jdbcTemplate.queryForObject(sql, paramMap, Boolean.class);
+      return jdbcTemplate.queryForObject(
+          sql,
+          paramMap,
+          (rs, rowNum) ->
+              new FolderRecord()
+                  .setFolderId(rs.getString("folder_id"))
+                  .setFolderName(rs.getString("folder_name"))
+                  .setParentFolderId(rs.getString("parent_folder_id"))
+                  .setSpendProfileId(rs.getString("spend_profile_id"))
+                  .setSpendProfileInherited(rs.getBoolean("spend_profile_inherited")));
     } catch (EmptyResultDataAccessException e) {
-      throw new FolderNotFoundException("Folder not found in DB: " + folderId);
+      return null;
     }
   }
 
-  // Checks whether a given name is taken by a contained object within a folder.
-  public boolean containedObjectNameExists(String parentFolderId, String name) {
+  // Tell every instance, including this one, to drop the given folders from its cache. NOTIFY is
+  // transactional, so listeners only hear about the change once the caller's transaction commits.
+  private void notifyInvalidation(List<String> folderIds) {
+    String sql = "SELECT pg_notify(:channel, id) FROM unnest(ARRAY[:ids]::text[]) AS id";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("channel", FolderCache.INVALIDATION_CHANNEL);
+    paramMap.put("ids", folderIds);
+    jdbcTemplate.query(sql, paramMap, (ResultSetExtractor<Void>) rs -> null);
+  }
+
+  // Reads, in a single round trip, the parent folder's spend profile and whether the given name is
+  // already taken by one of its sub-folders or contained objects.
+  public ParentFolderInfo getParentFolderInfo(String parentFolderId, String name) {
     String sql =
-        "SELECT object_id from contained_object WHERE folder_id = :id AND object_name = :name LIMIT 1";
+        "SELECT p.spend_profile_id,"
+            + " EXISTS (SELECT 1 FROM folder"
+            + " WHERE parent_folder_id = :id AND folder_name = :name) AS folder_name_in_use,"
+            + " EXISTS (SELECT 1 FROM contained_object"
+            + " WHERE folder_id = :id AND object_name = :name) AS object_name_in_use"
+            + " FROM folder p WHERE p.folder_id = :id";
     Map<String, Object> paramMap = new HashMap<>();
     paramMap.put("id", parentFolderId);
     paramMap.put("name", name);
-
-    List<Map<String, Object>> resultSet = jdbcTemplate.queryForList(sql, paramMap);
-    return !resultSet.isEmpty();
+    try {
+      return jdbcTemplate.queryForObject(
+          sql,
+          paramMap,
+          (rs, rowNum) ->
+              new ParentFolderInfo()
+                  .setSpendProfileId(rs.getString("spend_profile_id"))
+                  .setFolderNameInUse(rs.getBoolean("folder_name_in_use"))
+                  .setObjectNameInUse(rs.getBoolean("object_name_in_use")));
+    } catch (EmptyResultDataAccessException e) {
+      throw new FolderNotFoundException("Folder not found in DB: " + parentFolderId);
+    }
   }
 
-  // Checks whether a given name is taken by a sub-folder within a folder.
-  public boolean containedFolderNameExists(String parentFolderId, String name) {
+  // Returns which of the given names are already taken by a sub-folder or contained object within a
+  // folder.
+  public Set<String> getContainedNamesInUse(String parentFolderId, Collection<String> names) {
+    if (names.isEmpty()) {
+      return Collections.emptySet();
+    }
     String sql =
-        "SELECT folder_id from folder WHERE parent_folder_id = :id AND folder_name = :name LIMIT 1";
+        "SELECT folder_name AS name FROM folder"
+            + " WHERE parent_folder_id = :id AND folder_name IN (:names)"
+            + " UNION SELECT object_name AS name FROM contained_object"
+            + " WHERE folder_id = :id AND object_name IN (:names)";
     Map<String, Object> paramMap = new HashMap<>();
     paramMap.put("id", parentFolderId);
-    paramMap.put("name", name);
+    paramMap.put("names", names);
+    return new HashSet<>(jdbcTemplate.queryForList(sql, paramMap, String.class));
+  }
 
-    List<Map<String, Object>> resultSet = jdbcTemplate.queryForList(sql, paramMap);
-    return !resultSet.isEmpty();
+  // Whether a duplicate key error was raised by the sibling name constraint, as opposed to e.g. a
+  // reused folder id. Batch inserts report the server error through the SQLException chain.
+  private static boolean isNameConflict(DuplicateKeyException e) {
+    Throwable cause = e.getCause();
+    while (cause != null) {
+      if (cause instanceof PSQLException) {
+        ServerErrorMessage serverError = ((PSQLException) cause).getServerErrorMessage();
+        if (serverError != null && NAME_CONSTRAINT.equals(serverError.getConstraint())) {
+          return true;
+        }
+      }
+      if (cause instanceof SQLException && ((SQLException) cause).getNextException() != null) {
+        cause = ((SQLException) cause).getNextException();
+      } else {
+        cause = cause.getCause();
+      }
+    }
+    return false;
   }
 }
@@ -0,0 +1,56 @@
+package bio.terra.folder.db;
+
+// POJO describing one row of the folder table. Used to pass batches of folders to the DAO; it is
+// also carried in flight parameters, so it must stay serializable to JSON.
+public class FolderRecord {
+  private String folderId;
+  private String folderName;
+  private String parentFolderId;
+  private String spendProfileId;
+  private boolean spendProfileInherited;
+
+  public String getFolderId() {
+    return folderId;
+  }
+
+  public FolderRecord setFolderId(String folderId) {
+    this.folderId = folderId;
+    return this;
+  }
+
+  public String getFolderName() {
+    return folderName;
+  }
+
+  public FolderRecord setFolderName(String folderName) {
+    this.folderName = folderName;
+    return this;
+  }
+
+  public String getParentFolderId() {
+    return parentFolderId;
+  }
+
+  public FolderRecord setParentFolderId(String parentFolderId) {
+    this.parentFolderId = parentFolderId;
+    return this;
+  }
+
+  public String getSpendProfileId() {
+    return spendProfileId;
+  }
+
+  public FolderRecord setSpendProfileId(String spendProfileId) {
+    this.spendProfileId = spendProfileId;
+    return this;
+  }
+
+  public boolean isSpendProfileInherited() {
+    return spendProfileInherited;
+  }
+
+  public FolderRecord setSpendProfileInherited(boolean spendProfileInherited) {
+    this.spendProfileInherited = spendProfileInherited;
+    return this;
+  }
+}
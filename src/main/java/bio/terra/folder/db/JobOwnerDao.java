@@ -0,0 +1,91 @@
+package bio.terra.folder.db;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tracks which subject submitted each job. Stairway owns the flights themselves; this table only
+// exists so that one user's jobs can be listed without scanning the flight log.
+@Component
+public class JobOwnerDao {
+  // Postgres NOTIFY channel on which each instance announces the flights it has finished running
+  public static final String COMPLETION_CHANNEL = "job_completion";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public JobOwnerDao(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void addJob(String flightId, String subjectId, Instant submitted) {
+    String sql =
+        "INSERT INTO job_owner (flight_id, subject_id, submitted)"
+            + " VALUES (:flight_id, :subject_id, :submitted)";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("flight_id", flightId);
+    paramMap.put("subject_id", subjectId);
+    paramMap.put("submitted", Timestamp.from(submitted));
+    jdbcTemplate.update(sql, paramMap);
+  }
+
+  public boolean deleteJob(String flightId) {
+    String sql = "DELETE FROM job_owner WHERE flight_id = :flight_id";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("flight_id", flightId);
+    return jdbcTemplate.update(sql, paramMap) > 0;
+  }
+
+  public int deleteJobs(List<String> flightIds) {
+    if (flightIds.isEmpty()) {
+      return 0;
+    }
+    String sql = "DELETE FROM job_owner WHERE flight_id IN (:flight_ids)";
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("flight_ids", flightIds);
+    return jdbcTemplate.update(sql, paramMap);
+  }
+
+  /**
+   * Returns one page of a subject's jobs in submission order. Paging is keyset based: pass the
+   * (submitted, flightId) of the last job on the previous page, or nulls for the first page.
+   */
+  public List<JobOwnerRecord> listJobs(
+      String subjectId, Instant afterSubmitted, String afterFlightId, int limit) {
+    StringBuilder sql =
+        new StringBuilder(
+            "SELECT flight_id, submitted FROM job_owner WHERE subject_id = :subject_id");
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("subject_id", subjectId);
+    paramMap.put("limit", limit);
+    if (afterSubmitted != null) {
+      sql.append(" AND (submitted, flight_id) > (:after_submitted, :after_flight_id)");
+      paramMap.put("after_submitted", Timestamp.from(afterSubmitted));
+      paramMap.put("after_flight_id", afterFlightId);
+    }
+    sql.append(" ORDER BY submitted, flight_id LIMIT :limit");
+
+    return jdbcTemplate.query(
+        sql.toString(),
+        paramMap,
+        (rs, rowNum) ->
+            new JobOwnerRecord()
+                .setFlightId(rs.getString("flight_id"))
+                .setSubmitted(rs.getTimestamp("submitted").toInstant()));
+  }
+
+  // Tell every instance that a flight has finished, so they can wake anyone waiting on it.
+  public void notifyJobCompleted(String flightId) {
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("channel", COMPLETION_CHANNEL);
+    paramMap.put("flight_id", flightId);
+    jdbcTemplate.query(
+        "SELECT pg_notify(:channel, :flight_id)", paramMap, (ResultSetExtractor<Void>) rs -> null);
+  }
+}
@@ -0,0 +1,27 @@
+package bio.terra.folder.db;
+
+import java.time.Instant;
+
+// POJO for the listing columns of one job_owner row
+public class JobOwnerRecord {
+  private String flightId;
+  private Instant submitted;
+
+  public String getFlightId() {
+    return flightId;
+  }
+
+  public JobOwnerRecord setFlightId(String flightId) {
+    this.flightId = flightId;
+    return this;
+  }
+
+  public Instant getSubmitted() {
+    return submitted;
+  }
+
+  public JobOwnerRecord setSubmitted(Instant submitted) {
+    this.submitted = submitted;
+    return this;
+  }
+}
@@ -0,0 +1,144 @@
+package bio.terra.folder.db;
+
+import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Receives Postgres NOTIFY messages published by any instance sharing the folder database. One
+ * daemon thread holds a dedicated connection that LISTENs on every subscribed channel and hands
+ * each payload to the channel's handler.
+ *
+ * <p>Notifications sent while the listener is disconnected are lost, so after every (re)connect
+ * each subscriber's reconnect hook is run to let it recover from anything it may have missed.
+ */
+@Component
+public class NotificationListener {
+  private static final Logger logger = LoggerFactory.getLogger(NotificationListener.class);
+
+  private final FolderManagerJdbcConfiguration jdbcConfiguration;
+  private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+  private volatile Thread listenerThread;
+  private volatile boolean running;
+
+  @Autowired
+  public NotificationListener(FolderManagerJdbcConfiguration jdbcConfiguration) {
+    this.jdbcConfiguration = jdbcConfiguration;
+  }
+
+  /**
+   * Subscribe to a channel. Subscriptions must be made before {@link #start()}; beans do it in
+   * their constructors.
+   *
+   * @param channel Postgres channel name; must be a plain identifier
+   * @param handler called on the listener thread with each notification payload
+   * @param onReconnect called on the listener thread after each (re)connect
+   */
+  public void subscribe(String channel, Consumer<String> handler, Runnable onReconnect) {
+    subscriptions.put(channel, new Subscription(handler, onReconnect));
+  }
+
+  /**
+   * Start listening. Called from the StartupInitializer, after the database is migrated, so that
+   * bean initialization stays free of database access.
+   */
+  public synchronized void start() {
+    if (listenerThread != null) {
+      return;
+    }
+    running = true;
+    listenerThread = new Thread(this::listen, "postgres-notification-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+      listenerThread = null;
+    }
+  }
+
+  private void listen() {
+    long pollMillis = jdbcConfiguration.getNotificationPollMillis();
+    while (running) {
+      try (Connection connection = openListenerConnection();
+          Statement statement = connection.createStatement()) {
+        for (String channel : subscriptions.keySet()) {
+          statement.execute("LISTEN " + channel);
+        }
+        subscriptions.values().forEach(subscription -> subscription.onReconnect.run());
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          // The driver only reads notifications off the socket when it talks to the server
+          statement.execute("SELECT 1");
+          PGNotification[] notifications = pgConnection.getNotifications();
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              dispatch(notification);
+            }
+          }
+          Thread.sleep(pollMillis);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (SQLException ex) {
+        logger.warn("Notification listener failed; reconnecting", ex);
+        try {
+          Thread.sleep(Math.max(pollMillis, 1000));
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void dispatch(PGNotification notification) {
+    Subscription subscription = subscriptions.get(notification.getName());
+    if (subscription == null) {
+      return;
+    }
+    try {
+      subscription.handler.accept(notification.getParameter());
+    } catch (RuntimeException ex) {
+      // A failing handler must not take the listener down for everyone else
+      logger.warn("Handler for channel {} failed", notification.getName(), ex);
+    }
+  }
+
+  // The listener holds its connection for the life of the instance, so it does not come from the
+  // pool.
+  private Connection openListenerConnection() throws SQLException {
+    Properties props = new Properties();
+    props.setProperty("user", jdbcConfiguration.getUsername());
+    props.setProperty("password", jdbcConfiguration.getPassword());
+    return DriverManager.getConnection(jdbcConfiguration.getUri(), props);
+  }
+
+  private static class Subscription {
+    private final Consumer<String> handler;
+    private final Runnable onReconnect;
+
+    Subscription(Consumer<String> handler, Runnable onReconnect) {
+      this.handler = handler;
+      this.onReconnect = onReconnect;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package bio.terra.folder.db;
+
+// POJO holding what creating a folder needs to know about its parent, all read in one query.
+public class ParentFolderInfo {
+  private String spendProfileId;
+  private boolean folderNameInUse;
+  private boolean objectNameInUse;
+
+  public String getSpendProfileId() {
+    return spendProfileId;
+  }
+
+  public ParentFolderInfo setSpendProfileId(String spendProfileId) {
+    this.spendProfileId = spendProfileId;
+    return this;
+  }
+
+  public boolean isFolderNameInUse() {
+    return folderNameInUse;
+  }
+
+  public ParentFolderInfo setFolderNameInUse(boolean folderNameInUse) {
+    this.folderNameInUse = folderNameInUse;
+    return this;
+  }
+
+  public boolean isObjectNameInUse() {
+    return objectNameInUse;
+  }
+
+  public ParentFolderInfo setObjectNameInUse(boolean objectNameInUse) {
+    this.objectNameInUse = objectNameInUse;
+    return this;
+  }
+}
@@ -0,0 +1,77 @@
+package bio.terra.folder.db;
+
+import bio.terra.folder.common.utils.TracingUtils;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.StatementCallback;
+
+/**
+ * JdbcTemplate that runs every statement in its own trace span, with the SQL as the span's
+ * db.statement attribute. Every query, update and batch goes through one of the execute methods
+ * overridden here.
+ *
+ * <p>Statements are traced here rather than by wrapping the DataSource, because Spring binds
+ * transactional connections to the DataSource instance: the template and the transaction manager
+ * must keep sharing the same one.
+ */
+public class TracingJdbcTemplate extends JdbcTemplate {
+  private static final String SPAN_NAME = "jdbc.statement";
+
+  private final Tracer tracer;
+
+  public TracingJdbcTemplate(DataSource dataSource, Tracer tracer) {
+    super(dataSource);
+    this.tracer = tracer;
+  }
+
+  @Override
+  public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
+      throws DataAccessException {
+    return traced(psc, () -> super.execute(psc, action));
+  }
+
+  @Override
+  public <T> T execute(CallableStatementCreator csc, CallableStatementCallback<T> action)
+      throws DataAccessException {
+    return traced(csc, () -> super.execute(csc, action));
+  }
+
+  @Override
+  public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+    return traced(action, () -> super.execute(action));
+  }
+
+  private <T> T traced(Object sqlSource, Supplier<T> statement) {
+    Span span =
+        tracer
+            .spanBuilder(SPAN_NAME)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("db.system", "postgresql")
+            .startSpan();
+    if (sqlSource instanceof SqlProvider) {
+      String sql = ((SqlProvider) sqlSource).getSql();
+      if (sql != null) {
+        span.setAttribute("db.statement", sql);
+      }
+    }
+    try (Scope scope = span.makeCurrent()) {
+      return statement.get();
+    } catch (RuntimeException ex) {
+      TracingUtils.recordError(span, ex);
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+}
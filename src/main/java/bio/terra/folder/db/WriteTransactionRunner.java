@@ -0,0 +1,114 @@
+package bio.terra.folder.db;
+
+import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs folder database writes in a transaction and retries them when Postgres aborts them with a
+ * transient concurrency error.
+ *
+ * <p>By default writes run at READ COMMITTED and rely on unique constraints to keep concurrent
+ * writers consistent; setting db.folder.serializableWrites restores SERIALIZABLE isolation. In both
+ * modes serialization failures (SQLSTATE 40001) and deadlocks (40P01) are retried with jittered
+ * exponential backoff. Writes that join a caller's transaction are not retried, because the
+ * caller's transaction is already aborted.
+ *
+ * <p>Writes whose consistency checks cannot be expressed as constraints use {@link
+ * #runSerializable}, which always runs at SERIALIZABLE and is retried the same way.
+ */
+@Component
+public class WriteTransactionRunner {
+  private static final Logger logger = LoggerFactory.getLogger(WriteTransactionRunner.class);
+  private static final String SERIALIZATION_FAILURE = "40001";
+  private static final String DEADLOCK_DETECTED = "40P01";
+
+  private final FolderManagerJdbcConfiguration jdbcConfiguration;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate serializableTemplate;
+
+  @Autowired
+  public WriteTransactionRunner(
+      FolderManagerJdbcConfiguration jdbcConfiguration,
+      PlatformTransactionManager transactionManager) {
+    this.jdbcConfiguration = jdbcConfiguration;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+    transactionTemplate.setIsolationLevel(
+        jdbcConfiguration.isSerializableWrites()
+            ? TransactionDefinition.ISOLATION_SERIALIZABLE
+            : TransactionDefinition.ISOLATION_READ_COMMITTED);
+    this.serializableTemplate = new TransactionTemplate(transactionManager);
+    serializableTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+    serializableTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+  }
+
+  public void run(Runnable write) {
+    run(transactionTemplate, write);
+  }
+
+  public <T> T execute(Supplier<T> write) {
+    return execute(transactionTemplate, write);
+  }
+
+  public void runSerializable(Runnable write) {
+    run(serializableTemplate, write);
+  }
+
+  private void run(TransactionTemplate template, Runnable write) {
+    execute(
+        template,
+        () -> {
+          write.run();
+          return null;
+        });
+  }
+
+  private <T> T execute(TransactionTemplate template, Supplier<T> write) {
+    boolean canRetry = !TransactionSynchronizationManager.isActualTransactionActive();
+    int maxAttempts = Math.max(1, jdbcConfiguration.getWriteRetryAttempts());
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return template.execute(status -> write.get());
+      } catch (DataAccessException ex) {
+        if (!canRetry || attempt >= maxAttempts || !isRetryable(ex)) {
+          throw ex;
+        }
+        logger.info("Retrying write after transient failure, attempt {}", attempt, ex);
+        backoff(attempt);
+      }
+    }
+  }
+
+  private void backoff(int attempt) {
+    // Full jitter: sleep a random time up to base * 2^(attempt-1)
+    long ceiling = jdbcConfiguration.getWriteRetryBackoffMillis() << Math.min(attempt - 1, 10);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static boolean isRetryable(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        if (SERIALIZATION_FAILURE.equals(sqlState) || DEADLOCK_DETECTED.equals(sqlState)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,18 @@
+package bio.terra.folder.db.exception;
+
+import bio.terra.folder.common.exception.BadRequestException;
+
+public class InvalidFolderMoveException extends BadRequestException {
+
+  public InvalidFolderMoveException(String message) {
+    super(message);
+  }
+
+  public InvalidFolderMoveException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public InvalidFolderMoveException(Throwable cause) {
+    super(cause);
+  }
+}
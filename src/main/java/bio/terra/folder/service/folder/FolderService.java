@@ -1,18 +1,49 @@
 package bio.terra.folder.service.folder;
 
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.common.exception.InvalidPageTokenException;
+import bio.terra.folder.common.exception.SamApiException;
+import bio.terra.folder.common.exception.ValidationException;
+import bio.terra.folder.common.utils.PageTokenUtils;
+import bio.terra.folder.common.utils.SamUtils;
+import bio.terra.folder.common.utils.TracingUtils;
 import bio.terra.folder.db.FolderDao;
+import bio.terra.folder.db.FolderRecord;
+import bio.terra.folder.db.ParentFolderInfo;
 import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreateFolderTreeBody;
 import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.folder.generated.model.CreatedFolderTreeNode;
+import bio.terra.folder.generated.model.FolderDescendantList;
+import bio.terra.folder.generated.model.FolderDescription;
+import bio.terra.folder.generated.model.FolderTreeNode;
+import bio.terra.folder.service.folder.exception.FolderForbiddenException;
+import bio.terra.folder.service.folder.exception.FolderUnauthorizedException;
 import bio.terra.folder.service.folder.exception.InvalidNameException;
 import bio.terra.folder.service.folder.exception.InvalidSpendProfileException;
 import bio.terra.folder.service.folder.exception.NameConflictException;
 import bio.terra.folder.service.folder.flight.FolderCreateFlight;
 import bio.terra.folder.service.folder.flight.FolderFlightMapKeys;
+import bio.terra.folder.service.folder.flight.FolderTreeCreateFlight;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import bio.terra.folder.service.iam.SamService;
 import bio.terra.folder.service.job.JobBuilder;
 import bio.terra.folder.service.job.JobService;
+import io.opentelemetry.api.trace.Tracer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.broadinstitute.dsde.workbench.client.sam.ApiException;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.stereotype.Component;
 
 // Service for managing actions related to Folder CRUD operations. Operations for managing contained
@@ -24,16 +55,53 @@ public class FolderService {
 
   private JobService jobService;
   private FolderDao folderDao;
+  private ApplicationConfiguration appConfig;
+  private Tracer tracer;
+  private SamService samService;
+  private PreflightRunner preflightRunner;
 
-  public FolderService(JobService jobService, FolderDao folderDao) {
+  public FolderService(
+      JobService jobService,
+      FolderDao folderDao,
+      ApplicationConfiguration appConfig,
+      Tracer tracer,
+      SamService samService,
+      PreflightRunner preflightRunner) {
     this.jobService = jobService;
     this.folderDao = folderDao;
+    this.appConfig = appConfig;
+    this.tracer = tracer;
+    this.samService = samService;
+    this.preflightRunner = preflightRunner;
   }
 
   public CreatedFolder createFolder(CreateFolderBody folderBody, AuthenticatedUserRequest userReq) {
-    validateRequest(folderBody);
+    // Validation reads the database and authorization calls Sam; neither depends on the other
+    PreflightRunner.Phase preflight = preflightRunner.newPhase();
+    if (appConfig.isCreateFolderAuthorization()) {
+      preflight.submit(
+          () ->
+              TracingUtils.inSpan(
+                  tracer,
+                  "FolderService.authorizeCreate",
+                  () -> authorizeCreate(folderBody.getParentFolderId().orElse(null), userReq)));
+    }
+    Supplier<String> parentSpendProfile =
+        preflight.submit(
+            () ->
+                TracingUtils.inSpan(
+                    tracer, "FolderService.validateRequest", () -> validateRequest(folderBody)));
+    preflight.await();
+    String spendProfileFromParent = parentSpendProfile.get();
+    boolean spendProfileInherited = (spendProfileFromParent != null);
+    String spendProfile =
+        spendProfileInherited ? spendProfileFromParent : folderBody.getSpendProfile().orElse(null);
 
     String folderId = UUID.randomUUID().toString();
+    if (appConfig.isCreateFolderFastPath()) {
+      return createFolderDirect(folderBody, folderId, spendProfile, spendProfileInherited);
+    }
+
     String description = "Create folder " + folderId;
     JobBuilder jobBuilder =
         jobService.newJob(
@@ -43,14 +111,275 @@ public class FolderService {
             folderBody,
             userReq);
     jobBuilder.addParameter(FolderFlightMapKeys.FOLDER_ID, folderId);
+    jobBuilder.addParameter(FolderFlightMapKeys.SPEND_PROFILE_ID, spendProfile);
+    jobBuilder.addParameter(FolderFlightMapKeys.SPEND_PROFILE_INHERITED, spendProfileInherited);
     return jobBuilder.submitAndWait(CreatedFolder.class);
   }
 
-  private void validateRequest(CreateFolderBody request) {
+  public CreatedFolderTree createFolderTree(
+      CreateFolderTreeBody treeBody, AuthenticatedUserRequest userReq) {
+    String parentFolderId = treeBody.getParentFolderId().orElse(null);
+    // Creating a tree needs the same permission as creating its top-level folders one at a time
+    PreflightRunner.Phase preflight = preflightRunner.newPhase();
+    if (appConfig.isCreateFolderAuthorization()) {
+      preflight.submit(
+          () ->
+              TracingUtils.inSpan(
+                  tracer,
+                  "FolderService.authorizeCreate",
+                  () -> authorizeCreate(parentFolderId, userReq)));
+    }
+    Supplier<String> parentSpendProfile =
+        preflight.submit(
+            () ->
+                (parentFolderId == null)
+                    ? null
+                    : folderDao.getSpendProfileFromFolder(parentFolderId));
+    preflight.await();
+    String spendProfileFromParent = parentSpendProfile.get();
+
+    // An omitted folder list is an empty tree
+    List<FolderTreeNode> topLevelNodes =
+        (treeBody.getFolders() == null) ? Collections.emptyList() : treeBody.getFolders();
+
+    // Validate the whole tree in memory, assigning ids as we go. Records are produced parents
+    // first, which is the order the DAO needs to insert them.
+    List<FolderRecord> records = new ArrayList<>();
+    List<CreatedFolderTreeNode> createdNodes =
+        buildFolderTree(topLevelNodes, parentFolderId, spendProfileFromParent, 1, records);
+    CreatedFolderTree createdTree = new CreatedFolderTree().folders(createdNodes);
+    if (records.isEmpty()) {
+      return createdTree;
+    }
+
+    // Everything below the top level is new, so only top-level names can collide with existing
+    // folders or contained objects.
+    List<String> topLevelNames =
+        topLevelNodes.stream().map(FolderTreeNode::getName).collect(Collectors.toList());
+    Set<String> namesInUse = folderDao.getContainedNamesInUse(parentFolderId, topLevelNames);
+    if (!namesInUse.isEmpty()) {
+      throw new NameConflictException(
+          "Folder or contained object with name(s) "
+              + namesInUse
+              + " already exists inside "
+              + (parentFolderId == null ? "top-level folder" : parentFolderId));
+    }
+
+    if (appConfig.isCreateFolderFastPath()) {
+      folderDao.createFolders(records);
+      return createdTree;
+    }
+
+    String description = "Create tree of " + records.size() + " folders";
+    JobBuilder jobBuilder =
+        jobService.newJob(
+            description,
+            UUID.randomUUID().toString(), // JobId does not need persistence for sync calls.
+            FolderTreeCreateFlight.class,
+            treeBody,
+            userReq);
+    jobBuilder.addParameter(
+        FolderFlightMapKeys.FOLDER_RECORDS, records.toArray(new FolderRecord[0]));
+    jobBuilder.addParameter(FolderFlightMapKeys.CREATED_FOLDER_TREE, createdTree);
+    return jobBuilder.submitAndWait(CreatedFolderTree.class);
+  }
+
+  private List<CreatedFolderTreeNode> buildFolderTree(
+      List<FolderTreeNode> nodes,
+      String parentFolderId,
+      String spendProfileFromParent,
+      int depth,
+      List<FolderRecord> records) {
+    List<CreatedFolderTreeNode> createdNodes = new ArrayList<>();
+    if (nodes == null || nodes.isEmpty()) {
+      return createdNodes;
+    }
+    // Depth counts from the top level of the request, not from the root of the existing tree
+    if (depth > appConfig.getMaxFolderTreeDepth()) {
+      throw new ValidationException(
+          "Folder tree exceeds the maximum depth of "
+              + appConfig.getMaxFolderTreeDepth()
+              + " levels");
+    }
+    Set<String> siblingNames = new HashSet<>();
+    for (FolderTreeNode node : nodes) {
+      String folderName = node.getName();
+      validateName(folderName);
+      if (!siblingNames.add(folderName)) {
+        throw new NameConflictException(
+            "Folder with name "
+                + folderName
+                + " appears more than once inside "
+                + (parentFolderId == null ? "top-level folder" : parentFolderId));
+      }
+      String spendProfile = node.getSpendProfile().orElse(null);
+      validateSpendProfile(spendProfile, spendProfileFromParent);
+
+      boolean spendProfileInherited = (spendProfileFromParent != null);
+      if (spendProfileInherited) {
+        spendProfile = spendProfileFromParent;
+      }
+      String folderId = UUID.randomUUID().toString();
+      records.add(
+          new FolderRecord()
+              .setFolderId(folderId)
+              .setFolderName(folderName)
+              .setParentFolderId(parentFolderId)
+              .setSpendProfileId(spendProfile)
+              .setSpendProfileInherited(spendProfileInherited));
+      if (records.size() > appConfig.getMaxFolderTreeSize()) {
+        throw new ValidationException(
+            "Folder tree exceeds the maximum size of "
+                + appConfig.getMaxFolderTreeSize()
+                + " folders");
+      }
+
+      createdNodes.add(
+          new CreatedFolderTreeNode()
+              .id(folderId)
+              .name(folderName)
+              .children(
+                  buildFolderTree(node.getChildren(), folderId, spendProfile, depth + 1, records)));
+    }
+    return createdNodes;
+  }
+
+  public FolderDescendantList listFolderDescendants(
+      String folderId, int limit, String pageToken, AuthenticatedUserRequest userReq) {
+    PageTokenUtils.validateLimit(limit);
+    Integer afterDepth = null;
+    String afterId = null;
+    if (pageToken != null) {
+      List<String> cursor = PageTokenUtils.decode(pageToken, 2);
+      try {
+        afterDepth = Integer.valueOf(cursor.get(0));
+      } catch (NumberFormatException ex) {
+        throw new InvalidPageTokenException("Invalid page token: " + pageToken, ex);
+      }
+      afterId = cursor.get(1);
+    } else {
+      // Only check existence on the first page; an unknown folder otherwise looks like a leaf
+      folderDao.getFolderDepth(folderId);
+    }
+    // Checked on every page, since a page token may be replayed by a different caller
+    authorizeRead(folderId, userReq);
+
+    List<FolderDescription> folders =
+        folderDao.listDescendants(folderId, afterDepth, afterId, limit);
+    FolderDescendantList result = new FolderDescendantList().folders(folders);
+    if (folders.size() == limit) {
+      FolderDescription last = folders.get(folders.size() - 1);
+      result.setNextPageToken(
+          PageTokenUtils.encode(Arrays.asList(last.getDepth().toString(), last.getId())));
+    }
+    return result;
+  }
+
+  // Fast path for the single-step create: do the same work as CreateFolderStep in one local
+  // transaction on the request thread, skipping the Stairway database writes and thread hop.
+  private CreatedFolder createFolderDirect(
+      CreateFolderBody folderBody,
+      String folderId,
+      String spendProfile,
+      boolean spendProfileInherited) {
+    folderDao.createFolder(
+        folderId,
+        folderBody.getName(),
+        folderBody.getParentFolderId(),
+        JsonNullable.of(spendProfile),
+        spendProfileInherited);
+    return new CreatedFolder().id(folderId);
+  }
+
+  // Validates a create request and returns the spend profile the new folder inherits from its
+  // parent, or null if there is none. All of the reads about the parent happen in one query.
+  private String validateRequest(CreateFolderBody request) {
     String folderName = request.getName();
     String parentFolderId = request.getParentFolderId().orElse(null);
+    validateName(folderName);
+    // A top-level folder has no parent to conflict with or inherit from
+    if (parentFolderId == null) {
+      return null;
+    }
+
+    ParentFolderInfo parentInfo = folderDao.getParentFolderInfo(parentFolderId, folderName);
+    // Validate name uniqueness
+    if (parentInfo.isFolderNameInUse()) {
+      throw new NameConflictException(
+          "Folder with name " + folderName + " already exists inside " + parentFolderId);
+    }
+    if (parentInfo.isObjectNameInUse()) {
+      throw new NameConflictException(
+          "Contained object with name "
+              + folderName
+              + " already exists inside folder "
+              + parentFolderId);
+    }
+
+    validateSpendProfile(request.getSpendProfile().orElse(null), parentInfo.getSpendProfileId());
+    return parentInfo.getSpendProfileId();
+  }
+
+  // Checks the caller may create a folder in the given parent, or at the top level if it is null.
+  // Returns nothing useful; the return value only lets it run as a pre-flight check.
+  private Void authorizeCreate(String parentFolderId, AuthenticatedUserRequest userReq) {
+    String resourceType;
+    String resourceId;
+    if (parentFolderId == null) {
+      resourceType = SamUtils.SAM_FOLDER_MANAGER_RESOURCE;
+      resourceId = appConfig.getResourceId();
+    } else {
+      resourceType = SamUtils.SAM_FOLDER_RESOURCE;
+      resourceId = parentFolderId;
+    }
+    boolean authorized;
+    try {
+      authorized =
+          samService.isAuthorized(
+              requireToken(userReq),
+              resourceType,
+              resourceId,
+              SamUtils.SAM_CREATE_FOLDER_ACTION);
+    } catch (ApiException ex) {
+      throw new SamApiException(ex);
+    }
+    if (!authorized) {
+      throw new FolderForbiddenException(
+          "User " + userReq.getEmail() + " may not create folders in " + resourceId);
+    }
+    return null;
+  }
+
+  // Checks the caller may read the given folder and everything below it.
+  private void authorizeRead(String folderId, AuthenticatedUserRequest userReq) {
+    boolean authorized;
+    try {
+      authorized =
+          samService.isAuthorized(
+              requireToken(userReq),
+              SamUtils.SAM_FOLDER_RESOURCE,
+              folderId,
+              SamUtils.SAM_READ_FOLDER_ACTION);
+    } catch (ApiException ex) {
+      throw new SamApiException(ex);
+    }
+    if (!authorized) {
+      throw new FolderForbiddenException(
+          "User " + userReq.getEmail() + " may not read folder " + folderId);
+    }
+  }
+
+  // A caller without a token cannot be checked at all: that is 401, while a caller Sam turns down
+  // is 403. A token Sam does not accept comes back from Sam as 401.
+  private static String requireToken(AuthenticatedUserRequest userReq) {
+    return userReq
+        .getToken()
+        .orElseThrow(() -> new FolderUnauthorizedException("An access token is required"));
+  }
+
+  private void validateName(String folderName) {
     // Require names only include alphanumeric characters, spaces, - and _
-    if (!validNamePattern.matcher(folderName).matches()) {
+    if (folderName == null || !validNamePattern.matcher(folderName).matches()) {
       throw new InvalidNameException(
           "Provided name "
               + folderName
@@ -62,43 +391,20 @@ public class FolderService {
       throw new InvalidNameException(
           "Provided name exceeds maximum length of " + (10 * 1024 * 1024));
     }
-    // Validate name uniqueness
-    if (folderDao.containedFolderNameExists(parentFolderId, folderName)) {
-      throw new NameConflictException(
-          "Folder with name "
-              + folderName
-              + ""
-              + " already exists inside "
-              + (parentFolderId == null ? "top-level folder" : parentFolderId));
-    }
-    if (folderDao.containedObjectNameExists(parentFolderId, folderName)) {
-      throw new NameConflictException(
-          "Contained object with name "
-              + folderName
-              + " already exists inside folder "
-              + (parentFolderId == null ? "top-level folder" : parentFolderId));
-    }
-
-    validateSpendProfile(request);
   }
 
-  private void validateSpendProfile(CreateFolderBody request) {
+  private void validateSpendProfile(String spendProfile, String spendProfileFromParent) {
     // Generally, it's invalid to specify a spend profile when one is inherited from the parent
     // folder. However, when the requested spend profile matches the inherited spend profile,
     // this is just a hassle to callers.
-    String parentFolderId = request.getParentFolderId().orElse(null);
-    String spendProfile = request.getSpendProfile().orElse(null);
-    if (parentFolderId != null) {
-      String spendProfileFromParent = folderDao.getSpendProfileFromFolder(parentFolderId);
-      if (spendProfileFromParent != null
-          && spendProfile != null
-          && spendProfileFromParent != spendProfile) {
-        throw new InvalidSpendProfileException(
-            "You cannot override a parent folder's spend profile. Request provided spend profile: "
-                + spendProfile
-                + " but parent folder has spend profile: "
-                + spendProfileFromParent);
-      }
+    if (spendProfileFromParent != null
+        && spendProfile != null
+        && !StringUtils.equals(spendProfileFromParent, spendProfile)) {
+      throw new InvalidSpendProfileException(
+          "You cannot override a parent folder's spend profile. Request provided spend profile: "
+              + spendProfile
+              + " but parent folder has spend profile: "
+              + spendProfileFromParent);
     }
   }
 }
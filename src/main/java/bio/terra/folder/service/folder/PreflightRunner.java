@@ -0,0 +1,196 @@
+package bio.terra.folder.service.folder;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.service.folder.exception.PreflightInterruptedException;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the independent checks that come before an operation, such as validation reads and
+ * authorization, at the same time rather than one after another. A request then waits for its
+ * slowest check instead of for the sum of them all.
+ *
+ * <pre>
+ *   PreflightRunner.Phase preflight = preflightRunner.newPhase();
+ *   Supplier&lt;String&gt; spendProfile = preflight.submit(() -&gt; readParent(...));
+ *   preflight.submit(() -&gt; authorize(...));
+ *   preflight.await();
+ *   ... spendProfile.get() ...
+ * </pre>
+ *
+ * <p>The last check submitted runs on the caller's thread and the others on a pool of
+ * folder.preflightThreads threads shared by all requests. When the pool is busy, checks run on the
+ * caller's thread instead, one after another. As soon as a check fails, await throws its exception.
+ * Checks that have not started are cancelled; running ones are left to finish and their results
+ * are dropped. They are not interrupted, as neither JDBC nor the Sam client handle that cleanly.
+ */
+@Component
+public class PreflightRunner {
+  private final ExecutorService executor;
+
+  @Autowired
+  public PreflightRunner(ApplicationConfiguration appConfig) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            appConfig.getPreflightThreads(),
+            appConfig.getPreflightThreads(),
+            60,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "preflight-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    this.executor = pool;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public Phase newPhase() {
+    return new Phase();
+  }
+
+  /** One set of checks run together. Not thread safe: use it from the requesting thread only. */
+  public class Phase {
+    private final List<FutureTask<?>> tasks = new ArrayList<>();
+    private final BlockingQueue<FutureTask<?>> finished = new LinkedBlockingQueue<>();
+
+    private Phase() {}
+
+    /**
+     * Add a check to run. Checks must be independent of each other, and report failure by throwing
+     * a runtime exception.
+     *
+     * @return the check's result, available once {@link #await} returns
+     */
+    public <T> Supplier<T> submit(Supplier<T> check) {
+      // Checks run in the caller's trace and with its logging context
+      Context context = Context.current();
+      Map<String, String> mdc = MDC.getCopyOfContextMap();
+      FutureTask<T> task =
+          new FutureTask<T>(() -> runWithContext(context, mdc, check)) {
+            @Override
+            protected void done() {
+              finished.add(this);
+              if (hasFailed(this)) {
+                cancelAll();
+              }
+            }
+          };
+      tasks.add(task);
+      return () -> resultOf(task);
+    }
+
+    /** Run the checks and wait for all of them to pass; throws the first failure. */
+    public void await() {
+      for (int i = 0; i < tasks.size() - 1; i++) {
+        executor.execute(tasks.get(i));
+      }
+      if (!tasks.isEmpty()) {
+        tasks.get(tasks.size() - 1).run();
+      }
+
+      for (int i = 0; i < tasks.size(); i++) {
+        FutureTask<?> task;
+        try {
+          task = finished.take();
+          if (task.isCancelled()) {
+            continue;
+          }
+          task.get();
+        } catch (InterruptedException ex) {
+          cancelAll();
+          Thread.currentThread().interrupt();
+          throw new PreflightInterruptedException("Interrupted waiting for pre-flight checks", ex);
+        } catch (ExecutionException ex) {
+          cancelAll();
+          throw asUnchecked(ex.getCause());
+        }
+      }
+    }
+
+    // Safe from any thread: the task list no longer changes once the checks start
+    private void cancelAll() {
+      tasks.forEach(task -> task.cancel(false));
+    }
+  }
+
+  private static boolean hasFailed(FutureTask<?> task) {
+    if (task.isCancelled()) {
+      return false;
+    }
+    try {
+      task.get();
+      return false;
+    } catch (InterruptedException | ExecutionException ex) {
+      return true;
+    }
+  }
+
+  private static <T> T runWithContext(
+      Context context, Map<String, String> mdc, Supplier<T> check) {
+    Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+    setMdc(mdc);
+    try (Scope scope = context.makeCurrent()) {
+      return check.get();
+    } finally {
+      // Pool threads are reused, and the caller's thread keeps its own context
+      setMdc(previousMdc);
+    }
+  }
+
+  private static void setMdc(Map<String, String> mdc) {
+    if (mdc == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(mdc);
+    }
+  }
+
+  private static <T> T resultOf(FutureTask<T> task) {
+    if (!task.isDone()) {
+      throw new IllegalStateException("Pre-flight check result read before await");
+    }
+    try {
+      return task.get();
+    } catch (InterruptedException | ExecutionException ex) {
+      // Not reachable: await has seen this task complete successfully
+      throw new IllegalStateException("Pre-flight check did not succeed", ex);
+    }
+  }
+
+  // Checks only throw unchecked exceptions
+  private static RuntimeException asUnchecked(Throwable cause) {
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    return new IllegalStateException("Pre-flight check failed", cause);
+  }
+}
@@ -0,0 +1,17 @@
+package bio.terra.folder.service.folder.exception;
+
+import bio.terra.folder.common.exception.ForbiddenException;
+
+public class FolderForbiddenException extends ForbiddenException {
+  public FolderForbiddenException(String message) {
+    super(message);
+  }
+
+  public FolderForbiddenException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public FolderForbiddenException(Throwable cause) {
+    super(cause);
+  }
+}
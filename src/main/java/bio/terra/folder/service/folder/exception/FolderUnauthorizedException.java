@@ -0,0 +1,17 @@
+package bio.terra.folder.service.folder.exception;
+
+import bio.terra.folder.common.exception.UnauthorizedException;
+
+public class FolderUnauthorizedException extends UnauthorizedException {
+  public FolderUnauthorizedException(String message) {
+    super(message);
+  }
+
+  public FolderUnauthorizedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public FolderUnauthorizedException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -0,0 +1,13 @@
+package bio.terra.folder.service.folder.exception;
+
+import bio.terra.folder.common.exception.InternalServerErrorException;
+
+public class PreflightInterruptedException extends InternalServerErrorException {
+  public PreflightInterruptedException(String message) {
+    super(message);
+  }
+
+  public PreflightInterruptedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
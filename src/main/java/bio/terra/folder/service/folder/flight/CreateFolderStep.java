@@ -26,26 +26,18 @@ public class CreateFolderStep implements Step {
   public StepResult doStep(FlightContext flightContext) throws RetryException {
     FlightMap inputMap = flightContext.getInputParameters();
     String folderId = inputMap.get(FolderFlightMapKeys.FOLDER_ID, String.class);
-    String parentFolderId = folderBody.getParentFolderId().orElse(null);
-    String spendProfile = folderBody.getSpendProfile().orElse(null);
-    boolean spendProfileInherited = false;
-
-    // Because we check the spend profile validity when a request is received, we do not need to
-    // recheck it here.
-    if (parentFolderId != null) {
-      String spendProfileFromParent = folderDao.getSpendProfileFromFolder(parentFolderId);
-      if (spendProfileFromParent != null) {
-        spendProfile = spendProfileFromParent;
-        spendProfileInherited = true;
-      }
-    }
+    // The spend profile was validated and resolved against the parent when the request was
+    // received, so we do not need to read the parent again here.
+    String spendProfile = inputMap.get(FolderFlightMapKeys.SPEND_PROFILE_ID, String.class);
+    Boolean spendProfileInherited =
+        inputMap.get(FolderFlightMapKeys.SPEND_PROFILE_INHERITED, Boolean.class);
 
     folderDao.createFolder(
         folderId,
         folderBody.getName(),
-        JsonNullable.of(parentFolderId),
+        folderBody.getParentFolderId(),
         JsonNullable.of(spendProfile),
-        spendProfileInherited);
+        Boolean.TRUE.equals(spendProfileInherited));
 
     CreatedFolder response = new CreatedFolder();
     response.setId(folderId);
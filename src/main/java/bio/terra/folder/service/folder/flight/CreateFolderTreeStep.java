@@ -0,0 +1,43 @@
+package bio.terra.folder.service.folder.flight;
+
+import bio.terra.folder.common.utils.FlightUtils;
+import bio.terra.folder.db.FolderDao;
+import bio.terra.folder.db.FolderRecord;
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.exception.RetryException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+
+public class CreateFolderTreeStep implements Step {
+
+  private FolderDao folderDao;
+  private List<FolderRecord> folders;
+  private CreatedFolderTree createdTree;
+
+  public CreateFolderTreeStep(
+      FolderDao folderDao, List<FolderRecord> folders, CreatedFolderTree createdTree) {
+    this.folderDao = folderDao;
+    this.folders = folders;
+    this.createdTree = createdTree;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext flightContext) throws RetryException {
+    // Names and spend profiles are validated when the request is received, and the records are
+    // already ordered parents first.
+    folderDao.createFolders(folders);
+    FlightUtils.setResponse(flightContext, createdTree, HttpStatus.OK);
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext flightContext) {
+    folderDao.deleteFolders(
+        folders.stream().map(FolderRecord::getFolderId).collect(Collectors.toList()));
+    return StepResult.getStepResultSuccess();
+  }
+}
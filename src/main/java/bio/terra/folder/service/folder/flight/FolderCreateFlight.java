@@ -3,9 +3,12 @@ package bio.terra.folder.service.folder.flight;
 import bio.terra.folder.db.FolderDao;
 import bio.terra.folder.generated.model.CreateFolderBody;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
+import bio.terra.folder.service.job.InstrumentedStep;
 import bio.terra.folder.service.job.JobMapKeys;
 import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import org.springframework.context.ApplicationContext;
 
 public class FolderCreateFlight extends Flight {
@@ -15,12 +18,16 @@ public class FolderCreateFlight extends Flight {
 
     ApplicationContext appContext = (ApplicationContext) applicationContext;
     FolderDao folderDao = (FolderDao) appContext.getBean("folderDao");
+    MeterRegistry meterRegistry = appContext.getBean(MeterRegistry.class);
+    Tracer tracer = appContext.getBean(Tracer.class);
 
     AuthenticatedUserRequest userReq =
         inputParameters.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
     CreateFolderBody folderBody =
         inputParameters.get(JobMapKeys.REQUEST.getKeyName(), CreateFolderBody.class);
     // TODO: Sam authentication step should go here.
-    addStep(new CreateFolderStep(folderDao, folderBody));
+    addStep(
+        new InstrumentedStep(
+            new CreateFolderStep(folderDao, folderBody), getClass(), meterRegistry, tracer));
   }
 }
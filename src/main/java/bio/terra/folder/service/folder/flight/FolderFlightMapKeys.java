@@ -4,4 +4,8 @@ public class FolderFlightMapKeys {
   private FolderFlightMapKeys() {}
 
   public static final String FOLDER_ID = "folderId";
+  public static final String SPEND_PROFILE_ID = "spendProfileId";
+  public static final String SPEND_PROFILE_INHERITED = "spendProfileInherited";
+  public static final String FOLDER_RECORDS = "folderRecords";
+  public static final String CREATED_FOLDER_TREE = "createdFolderTree";
 }
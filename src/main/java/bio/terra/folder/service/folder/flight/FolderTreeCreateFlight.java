@@ -0,0 +1,37 @@
+package bio.terra.folder.service.folder.flight;
+
+import bio.terra.folder.db.FolderDao;
+import bio.terra.folder.db.FolderRecord;
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.folder.service.job.InstrumentedStep;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.context.ApplicationContext;
+
+public class FolderTreeCreateFlight extends Flight {
+
+  public FolderTreeCreateFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+
+    ApplicationContext appContext = (ApplicationContext) applicationContext;
+    FolderDao folderDao = (FolderDao) appContext.getBean("folderDao");
+    MeterRegistry meterRegistry = appContext.getBean(MeterRegistry.class);
+    Tracer tracer = appContext.getBean(Tracer.class);
+
+    List<FolderRecord> folders =
+        Arrays.asList(
+            inputParameters.get(FolderFlightMapKeys.FOLDER_RECORDS, FolderRecord[].class));
+    CreatedFolderTree createdTree =
+        inputParameters.get(FolderFlightMapKeys.CREATED_FOLDER_TREE, CreatedFolderTree.class);
+    addStep(
+        new InstrumentedStep(
+            new CreateFolderTreeStep(folderDao, folders, createdTree),
+            getClass(),
+            meterRegistry,
+            tracer));
+  }
+}
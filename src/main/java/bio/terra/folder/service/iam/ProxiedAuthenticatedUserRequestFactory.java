@@ -1,6 +1,8 @@
 package bio.terra.folder.service.iam;
 
+import bio.terra.folder.common.utils.TracingUtils;
 import java.util.Optional;
+import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -18,9 +20,16 @@ public class ProxiedAuthenticatedUserRequestFactory implements AuthenticatedUser
                       servletRequest.getHeader(AuthHeaderKeys.AUTHORIZATION.getKeyName());
                   return StringUtils.substring(authHeader, "Bearer:".length());
                 });
-    return new AuthenticatedUserRequest()
-        .email(servletRequest.getHeader(AuthHeaderKeys.OIDC_CLAIM_EMAIL.getKeyName()))
-        .subjectId(servletRequest.getHeader(AuthHeaderKeys.OIDC_CLAIM_USER_ID.getKeyName()))
-        .token(Optional.ofNullable(token));
+    AuthenticatedUserRequest userReq =
+        new AuthenticatedUserRequest()
+            .email(servletRequest.getHeader(AuthHeaderKeys.OIDC_CLAIM_EMAIL.getKeyName()))
+            .subjectId(servletRequest.getHeader(AuthHeaderKeys.OIDC_CLAIM_USER_ID.getKeyName()))
+            .token(Optional.ofNullable(token));
+    // Use the id the request was logged and traced under, if it has one
+    Object requestId = servletRequest.getAttribute(TracingUtils.REQUEST_ID_ATTRIBUTE);
+    if (requestId != null) {
+      userReq.reqId(UUID.fromString(requestId.toString()));
+    }
+    return userReq;
   }
 }
@@ -0,0 +1,80 @@
+package bio.terra.folder.service.iam;
+
+/**
+ * Circuit breaker for calls to Sam. After a run of consecutive failures it opens, and calls are
+ * refused without reaching Sam. Once the open period has passed it lets a single trial call
+ * through: if that succeeds the breaker closes, otherwise it opens again for another period.
+ *
+ * <p>Only failures of Sam itself count: timeouts, connection errors and 5xx responses. A 4xx
+ * response means Sam is up.
+ */
+class SamCircuitBreaker {
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+
+  SamCircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openMillis * 1_000_000L;
+  }
+
+  /** Returns whether a call may go to Sam now. A permitted call must report its outcome. */
+  synchronized boolean tryAcquirePermission() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt < openNanos) {
+          return false;
+        }
+        // This caller makes the trial call; the rest are refused until it reports back
+        state = State.HALF_OPEN;
+        return true;
+      case HALF_OPEN:
+      default:
+        return false;
+    }
+  }
+
+  synchronized void onSuccess() {
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+  }
+
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+
+  /**
+   * Report that a permitted call ended without telling anything about Sam's health, e.g. it was
+   * interrupted. A trial call's permission is handed back so that another caller can make it.
+   */
+  synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      state = State.OPEN;
+      // Let the next caller try right away
+      openedAt = System.nanoTime() - openNanos;
+    }
+  }
+
+  synchronized State getState() {
+    // An open breaker whose period is over will admit the next call
+    if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+}
@@ -1,35 +1,412 @@
 package bio.terra.folder.service.iam;
 
 import bio.terra.folder.app.configuration.SamConfiguration;
+import bio.terra.folder.common.exception.SamApiException;
+import bio.terra.folder.common.utils.MetricsUtils;
+import bio.terra.folder.generated.model.SystemStatusSystems;
+import bio.terra.folder.service.iam.exception.SamUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.opentelemetry.context.Context;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
 import org.broadinstitute.dsde.workbench.client.sam.ApiClient;
 import org.broadinstitute.dsde.workbench.client.sam.ApiException;
 import org.broadinstitute.dsde.workbench.client.sam.api.ResourcesApi;
+import org.broadinstitute.dsde.workbench.client.sam.api.StatusApi;
+import org.broadinstitute.dsde.workbench.client.sam.model.SystemStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * Calls to Sam, the IAM service.
+ *
+ * <p>All calls share one generated Sam client on top of one connection-pooled HTTP client, so
+ * connections (and their TLS sessions) to Sam are reused across requests and nothing is built per
+ * call. The caller's token is added to each request's Authorization header by an interceptor.
+ *
+ * <p>Authorization decisions are cached for a short time, keyed by a hash of the caller's token and
+ * the resource and action checked. A revoked permission can therefore still be honored until its
+ * entry expires; errors from Sam are never cached.
+ *
+ * <p>A slow or failing Sam must not tie up request and flight threads, so every call to Sam:
+ *
+ * <ul>
+ *   <li>has a deadline, sam.requestTimeoutMillis, for the whole HTTP exchange;
+ *   <li>needs a permit from a bulkhead of sam.maxConcurrentRequests, waiting at most
+ *       sam.bulkheadWaitMillis for one;
+ *   <li>is refused while the {@link SamCircuitBreaker} is open.
+ * </ul>
+ *
+ * Calls that cannot reach Sam for these reasons throw {@link SamUnavailableException}. An
+ * authorization check that fails this way falls back to a cached decision that has expired, if it
+ * expired less than sam.decisionCacheStaleGraceSeconds ago.
+ *
+ * <p>Checks on many resources at once go through {@link #filterAuthorized}, which prunes them
+ * using the resource hierarchy and runs the remaining checks concurrently on a bounded pool.
+ */
 @Component
-public class SamService {
+public class SamService implements MeterBinder {
+  // Latency of Sam calls, tagged by operation and outcome
+  private static final String SAM_TIMER = "folder.sam.request";
+
   private final SamConfiguration samConfig;
+  private final MeterRegistry meterRegistry;
+  // The caller's token for the Sam call in progress on each thread; see addCallerToken
+  private final ThreadLocal<String> callerToken = new ThreadLocal<>();
+  private final ResourcesApi resourcesApi;
+  private final StatusApi statusApi;
+  // Keys are (token hash, resource type, resource id, action)
+  private final Cache<List<String>, Boolean> decisions;
+  // The same decisions, kept for the stale grace period as well; null when there is no grace
+  private final Cache<List<String>, Boolean> staleDecisions;
+  private final Semaphore bulkhead;
+  private final SamCircuitBreaker circuitBreaker;
+  // Runs the checks of batch authorizations; its size bounds the load batches put on Sam
+  private final ExecutorService batchExecutor;
 
   @Autowired
-  public SamService(SamConfiguration samConfig) {
+  public SamService(SamConfiguration samConfig, MeterRegistry meterRegistry) {
     this.samConfig = samConfig;
+    this.meterRegistry = meterRegistry;
+    // Start from the generated client's HTTP settings, so only the pooling, timeouts and token
+    // handling change
+    ApiClient apiClient = new ApiClient();
+    OkHttpClient httpClient =
+        apiClient
+            .getHttpClient()
+            .newBuilder()
+            .connectionPool(
+                new ConnectionPool(
+                    samConfig.getConnectionPoolMaxIdle(),
+                    samConfig.getConnectionKeepAliveSeconds(),
+                    TimeUnit.SECONDS))
+            .connectTimeout(samConfig.getRequestTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .callTimeout(samConfig.getRequestTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .addInterceptor(this::addCallerToken)
+            .build();
+    apiClient.setHttpClient(httpClient).setBasePath(samConfig.getBasePath());
+    this.resourcesApi = new ResourcesApi(apiClient);
+    this.statusApi = new StatusApi(apiClient);
+    this.decisions =
+        Caffeine.newBuilder()
+            .maximumSize(samConfig.getDecisionCacheMaximumSize())
+            .expireAfterWrite(samConfig.getDecisionCacheExpireSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    long staleGraceSeconds = samConfig.getDecisionCacheStaleGraceSeconds();
+    this.staleDecisions =
+        (staleGraceSeconds <= 0)
+            ? null
+            : Caffeine.newBuilder()
+                .maximumSize(samConfig.getDecisionCacheMaximumSize())
+                .expireAfterWrite(
+                    samConfig.getDecisionCacheExpireSeconds() + staleGraceSeconds,
+                    TimeUnit.SECONDS)
+                .build();
+    this.bulkhead = new Semaphore(samConfig.getMaxConcurrentRequests());
+    this.circuitBreaker =
+        new SamCircuitBreaker(
+            samConfig.getCircuitFailureThreshold(), samConfig.getCircuitOpenMillis());
+    // The queue holds no more checks than the bulkhead admits at once. When it is full, the thread
+    // asking for the batch runs the check itself; that check still needs a bulkhead permit, so
+    // queued work stays bounded and the number of calls to Sam does not grow.
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            samConfig.getBatchConcurrency(),
+            samConfig.getBatchConcurrency(),
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(samConfig.getMaxConcurrentRequests()),
+            runnable -> {
+              Thread thread = new Thread(runnable, "sam-check-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    this.batchExecutor = executor;
   }
 
-  private ApiClient getApiClient(String accessToken) {
-    ApiClient client = new ApiClient();
-    client.setAccessToken(accessToken);
-    return client.setBasePath(samConfig.getBasePath());
+  @PreDestroy
+  public void shutdown() {
+    batchExecutor.shutdownNow();
   }
 
-  private ResourcesApi samResourcesApi(String accessToken) {
-    return new ResourcesApi(getApiClient(accessToken));
+  // Calls through the generated client are synchronous, and OkHttp runs the interceptors of a
+  // synchronous call on the calling thread, so the token found here is the one set by the call
+  // being made. Calls made without a token, such as the status check, are sent without one.
+  private Response addCallerToken(Interceptor.Chain chain) throws IOException {
+    String accessToken = callerToken.get();
+    if (accessToken == null) {
+      return chain.proceed(chain.request());
+    }
+    return chain.proceed(
+        chain.request().newBuilder().header("Authorization", "Bearer " + accessToken).build());
   }
 
   public boolean isAuthorized(
       String accessToken, String iamResourceType, String resourceId, String action)
       throws ApiException {
-    ResourcesApi resourceApi = samResourcesApi(accessToken);
-    return resourceApi.resourceAction(iamResourceType, resourceId, action);
+    List<String> key = Arrays.asList(hashToken(accessToken), iamResourceType, resourceId, action);
+    Boolean cached = decisions.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    boolean authorized;
+    callerToken.set(accessToken);
+    try {
+      authorized =
+          callSam(
+              "isAuthorized",
+              () -> resourcesApi.resourceAction(iamResourceType, resourceId, action));
+    } catch (SamUnavailableException ex) {
+      Boolean stale = (staleDecisions == null) ? null : staleDecisions.getIfPresent(key);
+      if (stale == null) {
+        throw ex;
+      }
+      return stale;
+    } finally {
+      callerToken.remove();
+    }
+    decisions.put(key, authorized);
+    if (staleDecisions != null) {
+      staleDecisions.put(key, authorized);
+    }
+    return authorized;
+  }
+
+  /**
+   * Ask Sam for its status, for this service's own status. The call is guarded like any other, so
+   * while the circuit breaker is open Sam is reported down without being called. Once the open
+   * period is over, this call may be the trial that closes the breaker again.
+   */
+  public SystemStatusSystems status() {
+    SystemStatusSystems status = new SystemStatusSystems();
+    try {
+      SystemStatus samStatus = callSam("getSystemStatus", statusApi::getSystemStatus);
+      status.ok(Boolean.TRUE.equals(samStatus.getOk()));
+    } catch (ApiException | RuntimeException ex) {
+      status.ok(false).addMessagesItem(ex.getMessage());
+    }
+    return status.addMessagesItem("circuit breaker " + getCircuitBreakerState());
+  }
+
+  /** State of the circuit breaker around Sam: CLOSED, OPEN or HALF_OPEN. */
+  public String getCircuitBreakerState() {
+    return circuitBreaker.getState().name();
+  }
+
+  // Make one call to Sam, guarded by the bulkhead and the circuit breaker
+  private <T> T callSam(String operation, MetricsUtils.TimedOperation<T, ApiException> call)
+      throws ApiException {
+    try {
+      if (!bulkhead.tryAcquire(samConfig.getBulkheadWaitMillis(), TimeUnit.MILLISECONDS)) {
+        throw new SamUnavailableException("Too many concurrent requests to Sam");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SamUnavailableException("Interrupted waiting to call Sam", ex);
+    }
+
+    boolean reported = false;
+    try {
+      if (!circuitBreaker.tryAcquirePermission()) {
+        // Nothing to report: the call never happened
+        reported = true;
+        throw new SamUnavailableException("Sam is unavailable; not calling it for now");
+      }
+      T result =
+          MetricsUtils.time(meterRegistry, SAM_TIMER, Tags.of("operation", operation), call);
+      circuitBreaker.onSuccess();
+      reported = true;
+      return result;
+    } catch (ApiException ex) {
+      // Code 0 means there was no HTTP response: a timeout or a connection failure
+      if (ex.getCode() == 0 || ex.getCode() >= 500) {
+        circuitBreaker.onFailure();
+      } else {
+        circuitBreaker.onSuccess();
+      }
+      reported = true;
+      if (ex.getCode() == 0) {
+        throw new SamUnavailableException("No response from Sam: " + describe(ex), ex);
+      }
+      throw ex;
+    } finally {
+      if (!reported) {
+        circuitBreaker.onIgnored();
+      }
+      bulkhead.release();
+    }
+  }
+
+  private static String describe(ApiException ex) {
+    Throwable cause = ex.getCause();
+    return (cause instanceof IOException) ? cause.toString() : ex.getMessage();
+  }
+
+  /**
+   * Returns the resources, of those given, on which the caller may perform an action. The resources
+   * form a hierarchy in which an action allowed on a resource is allowed on everything below it.
+   *
+   * <p>Resources are checked top down, one level at a time, and only those with no allowed ancestor
+   * are sent to Sam, concurrently. Listing a subtree the caller may read from its root therefore
+   * costs one check per top-level resource, however large the subtree.
+   *
+   * @param accessToken caller's token
+   * @param iamResourceType type of all the resources, e.g. {@code SamUtils.SAM_FOLDER_RESOURCE}
+   * @param action action to check
+   * @param parentIds the resources to check, each mapped to its parent's id. Roots map to null, or
+   *     to a parent outside the batch; access to such parents is not checked.
+   * @return ids of the resources the caller may perform the action on
+   */
+  public Set<String> filterAuthorized(
+      String accessToken, String iamResourceType, String action, Map<String, String> parentIds)
+      throws ApiException {
+    Map<String, Integer> depths = new HashMap<>();
+    List<List<String>> levels = new ArrayList<>();
+    for (String resourceId : parentIds.keySet()) {
+      int depth = depthInBatch(resourceId, parentIds, depths);
+      while (levels.size() <= depth) {
+        levels.add(new ArrayList<>());
+      }
+      levels.get(depth).add(resourceId);
+    }
+
+    Set<String> authorized = new HashSet<>();
+    for (List<String> level : levels) {
+      List<String> toCheck = new ArrayList<>();
+      for (String resourceId : level) {
+        // The parent's entry already reflects its own ancestors
+        if (authorized.contains(parentIds.get(resourceId))) {
+          authorized.add(resourceId);
+        } else {
+          toCheck.add(resourceId);
+        }
+      }
+      authorized.addAll(checkAll(accessToken, iamResourceType, action, toCheck));
+    }
+    return authorized;
+  }
+
+  // Number of ancestors a resource has within the batch; memoized, as subtrees share ancestors
+  private static int depthInBatch(
+      String resourceId, Map<String, String> parentIds, Map<String, Integer> depths) {
+    List<String> uncomputed = new ArrayList<>();
+    String current = resourceId;
+    int depth = -1;
+    while (current != null && parentIds.containsKey(current)) {
+      Integer known = depths.get(current);
+      if (known != null) {
+        depth = known;
+        break;
+      }
+      if (uncomputed.size() > parentIds.size()) {
+        throw new IllegalArgumentException("Resource hierarchy has a cycle at " + resourceId);
+      }
+      uncomputed.add(current);
+      current = parentIds.get(current);
+    }
+    // Fill in from the top of the walk down
+    for (int i = uncomputed.size() - 1; i >= 0; i--) {
+      depths.put(uncomputed.get(i), ++depth);
+    }
+    return depths.get(resourceId);
+  }
+
+  // Check independent resources concurrently; returns the allowed ones
+  private Set<String> checkAll(
+      String accessToken, String iamResourceType, String action, Collection<String> resourceIds)
+      throws ApiException {
+    Set<String> allowed = new HashSet<>();
+    if (resourceIds.size() == 1) {
+      String resourceId = resourceIds.iterator().next();
+      if (isAuthorized(accessToken, iamResourceType, resourceId, action)) {
+        allowed.add(resourceId);
+      }
+      return allowed;
+    }
+
+    List<Callable<Boolean>> checks = new ArrayList<>();
+    for (String resourceId : resourceIds) {
+      // Keep the checks in the caller's trace
+      checks.add(
+          Context.current()
+              .wrap(() -> isAuthorized(accessToken, iamResourceType, resourceId, action)));
+    }
+    try {
+      List<Future<Boolean>> results = batchExecutor.invokeAll(checks);
+      int i = 0;
+      for (String resourceId : resourceIds) {
+        if (results.get(i++).get()) {
+          allowed.add(resourceId);
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SamApiException("Interrupted checking authorization", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof ApiException) {
+        throw (ApiException) ex.getCause();
+      }
+      throw new SamApiException("Failed checking authorization", ex.getCause());
+    }
+    return allowed;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, decisions, "samDecision");
+    Gauge.builder(
+            "folder.sam.circuit.open",
+            circuitBreaker,
+            breaker -> breaker.getState() == SamCircuitBreaker.State.OPEN ? 1 : 0)
+        .description("1 while calls to Sam are refused by the circuit breaker")
+        .register(registry);
+  }
+
+  // Tokens are not kept in memory any longer than the request that carries them
+  private static String hashToken(String accessToken) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(accessToken.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException ex) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException("SHA-256 is not available", ex);
+    }
   }
 }
@@ -0,0 +1,13 @@
+package bio.terra.folder.service.iam.exception;
+
+import bio.terra.folder.common.exception.ServiceUnavailableException;
+
+public class SamUnavailableException extends ServiceUnavailableException {
+  public SamUnavailableException(String message) {
+    super(message);
+  }
+
+  public SamUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
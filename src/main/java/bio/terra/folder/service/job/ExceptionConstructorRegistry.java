@@ -0,0 +1,135 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.common.exception.ErrorReportException;
+import bio.terra.folder.service.job.exception.ExceptionSerializerException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+
+/**
+ * The exception classes StairwayExceptionSerializer may rehydrate, with their constructors resolved
+ * once up front as MethodHandles. Deserializing is then a map lookup and a direct call. It never
+ * loads a class named in stored flight data, and it rejects names that are not in the registry.
+ *
+ * <p>The default registry holds every concrete ErrorReportException in the service, found by a
+ * classpath scan, and a few common JDK runtime exceptions.
+ */
+class ExceptionConstructorRegistry {
+  private static final String BASE_PACKAGE = "bio.terra.folder";
+  private static final List<Class<? extends Exception>> JDK_EXCEPTIONS =
+      Arrays.asList(
+          RuntimeException.class,
+          IllegalArgumentException.class,
+          IllegalStateException.class,
+          UnsupportedOperationException.class,
+          NullPointerException.class);
+
+  // Call-site types for the pre-resolved constructors
+  private static final MethodType MESSAGE_CTOR =
+      MethodType.methodType(Exception.class, String.class);
+  private static final MethodType DETAILS_CTOR =
+      MethodType.methodType(Exception.class, String.class, List.class);
+
+  private final Map<String, ExceptionConstructors> constructorsByClassName;
+
+  private ExceptionConstructorRegistry(Map<String, ExceptionConstructors> constructorsByClassName) {
+    this.constructorsByClassName = Collections.unmodifiableMap(constructorsByClassName);
+  }
+
+  static ExceptionConstructorRegistry createDefault() {
+    ClassPathScanningCandidateComponentProvider scanner =
+        new ClassPathScanningCandidateComponentProvider(false);
+    scanner.addIncludeFilter(new AssignableTypeFilter(ErrorReportException.class));
+
+    Map<String, ExceptionConstructors> constructors = new HashMap<>();
+    for (BeanDefinition candidate : scanner.findCandidateComponents(BASE_PACKAGE)) {
+      register(constructors, loadClass(candidate.getBeanClassName()));
+    }
+    for (Class<? extends Exception> clazz : JDK_EXCEPTIONS) {
+      register(constructors, clazz);
+    }
+    return new ExceptionConstructorRegistry(constructors);
+  }
+
+  // Builds a registry of exactly the given classes
+  static ExceptionConstructorRegistry of(List<Class<? extends Exception>> classes) {
+    Map<String, ExceptionConstructors> constructors = new HashMap<>();
+    classes.forEach(clazz -> register(constructors, clazz));
+    return new ExceptionConstructorRegistry(constructors);
+  }
+
+  /**
+   * Build an exception of a registered class. ErrorReport exceptions are given their error details
+   * when the class has a (String, List) constructor; otherwise the (String) constructor is used.
+   *
+   * @return the exception, or null if the class is not registered or could not be constructed
+   */
+  Exception construct(
+      String className, String message, boolean errorReport, List<String> errorDetails) {
+    ExceptionConstructors constructors = constructorsByClassName.get(className);
+    if (constructors == null) {
+      return null;
+    }
+    if (errorReport && constructors.withDetails != null) {
+      try {
+        return (Exception) constructors.withDetails.invokeExact(message, errorDetails);
+      } catch (Throwable ex) {
+        // Construction failed. Fall through
+      }
+    }
+    if (constructors.withMessage != null) {
+      try {
+        return (Exception) constructors.withMessage.invokeExact(message);
+      } catch (Throwable ex) {
+        // Construction failed. Fall through
+      }
+    }
+    return null;
+  }
+
+  private static Class<? extends Exception> loadClass(String className) {
+    try {
+      return Class.forName(className).asSubclass(Exception.class);
+    } catch (ClassNotFoundException ex) {
+      throw new ExceptionSerializerException("Scanned exception class not found: " + className, ex);
+    }
+  }
+
+  private static void register(
+      Map<String, ExceptionConstructors> constructors, Class<? extends Exception> clazz) {
+    MethodHandle withMessage = findConstructor(clazz, MESSAGE_CTOR);
+    MethodHandle withDetails = findConstructor(clazz, DETAILS_CTOR);
+    if (withMessage != null || withDetails != null) {
+      constructors.put(clazz.getName(), new ExceptionConstructors(withMessage, withDetails));
+    }
+  }
+
+  // Resolve a public constructor, adapted to return Exception; null if the class has none
+  private static MethodHandle findConstructor(Class<?> clazz, MethodType callSiteType) {
+    try {
+      return MethodHandles.publicLookup()
+          .findConstructor(clazz, callSiteType.changeReturnType(void.class))
+          .asType(callSiteType);
+    } catch (NoSuchMethodException | IllegalAccessException ex) {
+      return null;
+    }
+  }
+
+  private static class ExceptionConstructors {
+    private final MethodHandle withMessage;
+    private final MethodHandle withDetails;
+
+    ExceptionConstructors(MethodHandle withMessage, MethodHandle withDetails) {
+      this.withMessage = withMessage;
+      this.withDetails = withDetails;
+    }
+  }
+}
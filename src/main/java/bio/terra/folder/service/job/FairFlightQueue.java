@@ -0,0 +1,260 @@
+package bio.terra.folder.service.job;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Unbounded work queue for a FlightPool that hands out waiting flights round-robin across the
+ * subjects that submitted them, instead of in arrival order. A client that queues thousands of
+ * flights then only gets every Nth thread when N subjects are waiting, and an interactive user's
+ * flight waits behind at most one flight per other subject rather than behind the whole backlog.
+ * With a single subject waiting it behaves as a plain FIFO queue.
+ *
+ * <p>This is deficit round-robin with every flight costing one quantum, which reduces to plain
+ * round-robin. Tasks with no subject (e.g. recovered flights) share one anonymous turn.
+ */
+class FairFlightQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+  private static final String NO_SUBJECT = "";
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  // Waiting tasks per subject, and the order in which subjects with waiting tasks get their turn
+  private final Map<String, ArrayDeque<Runnable>> waitingBySubject = new HashMap<>();
+  private final ArrayDeque<String> turns = new ArrayDeque<>();
+  private final Function<Runnable, String> subjectOf;
+  private int count;
+
+  /** @param subjectOf returns the subject a task runs for, or null if it has none */
+  FairFlightQueue(Function<Runnable, String> subjectOf) {
+    this.subjectOf = subjectOf;
+  }
+
+  // Number of distinct subjects with flights waiting
+  int subjectCount() {
+    lock.lock();
+    try {
+      return turns.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(Runnable task) {
+    String subject = subjectOf(task);
+    lock.lock();
+    try {
+      ArrayDeque<Runnable> waiting = waitingBySubject.get(subject);
+      if (waiting == null) {
+        waiting = new ArrayDeque<>();
+        waitingBySubject.put(subject, waiting);
+        turns.addLast(subject);
+      }
+      waiting.addLast(task);
+      count++;
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(Runnable task) {
+    offer(task);
+  }
+
+  @Override
+  public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+    return offer(task);
+  }
+
+  @Override
+  public Runnable poll() {
+    lock.lock();
+    try {
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable peek() {
+    lock.lock();
+    try {
+      String subject = turns.peekFirst();
+      return (subject == null) ? null : waitingBySubject.get(subject).peekFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public boolean remove(Object task) {
+    if (!(task instanceof Runnable)) {
+      return false;
+    }
+    String subject = subjectOf((Runnable) task);
+    lock.lock();
+    try {
+      ArrayDeque<Runnable> waiting = waitingBySubject.get(subject);
+      if (waiting == null || !waiting.remove(task)) {
+        return false;
+      }
+      if (waiting.isEmpty()) {
+        waitingBySubject.remove(subject);
+        turns.remove(subject);
+      }
+      count--;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> sink) {
+    return drainTo(sink, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> sink, int maxElements) {
+    lock.lock();
+    try {
+      int drained = 0;
+      while (drained < maxElements && count > 0) {
+        sink.add(dequeue());
+        drained++;
+      }
+      return drained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Iterates over a snapshot, in the order tasks would currently be handed out
+  @Override
+  public Iterator<Runnable> iterator() {
+    List<Runnable> snapshot = new ArrayList<>();
+    lock.lock();
+    try {
+      List<Iterator<Runnable>> perSubject = new ArrayList<>();
+      for (String subject : turns) {
+        perSubject.add(waitingBySubject.get(subject).iterator());
+      }
+      while (!perSubject.isEmpty()) {
+        Iterator<Iterator<Runnable>> round = perSubject.iterator();
+        while (round.hasNext()) {
+          Iterator<Runnable> waiting = round.next();
+          snapshot.add(waiting.next());
+          if (!waiting.hasNext()) {
+            round.remove();
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    Iterator<Runnable> snapshotIterator = snapshot.iterator();
+    return new Iterator<Runnable>() {
+      private Runnable last;
+
+      @Override
+      public boolean hasNext() {
+        return snapshotIterator.hasNext();
+      }
+
+      @Override
+      public Runnable next() {
+        last = snapshotIterator.next();
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        FairFlightQueue.this.remove(last);
+      }
+    };
+  }
+
+  // Take the next task from the subject whose turn it is, then send that subject to the back of
+  // the line if it has more waiting. Called with the lock held.
+  private Runnable dequeue() {
+    String subject = turns.pollFirst();
+    if (subject == null) {
+      return null;
+    }
+    ArrayDeque<Runnable> waiting = waitingBySubject.get(subject);
+    Runnable task = waiting.pollFirst();
+    if (waiting.isEmpty()) {
+      waitingBySubject.remove(subject);
+    } else {
+      turns.addLast(subject);
+    }
+    count--;
+    return task;
+  }
+
+  private String subjectOf(Runnable task) {
+    String subject = subjectOf.apply(task);
+    return (subject == null) ? NO_SUBJECT : subject;
+  }
+}
@@ -0,0 +1,126 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes finished flights once they are older than the retention period. Jobs run synchronously
+ * are never released by a client, so without this the Stairway tables, and every query against
+ * them, would grow forever.
+ *
+ * <p>Each run deletes in batches of flightJanitorBatchSize, so no single Stairway query or burst of
+ * deletes is unbounded, and stops after flightJanitorMaxBatchesPerRun batches to leave the rest for
+ * the next run. Every instance runs a janitor; overlapping runs only repeat harmless deletes, and
+ * the first run is delayed by a random fraction of the interval to spread them out.
+ */
+@Component
+public class FlightJanitor implements MeterBinder {
+  private static final Logger logger = LoggerFactory.getLogger(FlightJanitor.class);
+
+  private final JobService jobService;
+  private final ApplicationConfiguration appConfig;
+  private ScheduledExecutorService scheduler;
+  // Set once metrics are bound; runs before that are not recorded
+  private volatile Counter purgedCounter;
+  private volatile Timer runTimer;
+
+  @Autowired
+  public FlightJanitor(JobService jobService, ApplicationConfiguration appConfig) {
+    this.jobService = jobService;
+    this.appConfig = appConfig;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    purgedCounter =
+        Counter.builder("stairway.janitor.purged")
+            .description("Finished flights deleted by the janitor")
+            .register(registry);
+    runTimer =
+        Timer.builder("stairway.janitor.run")
+            .description("Time spent per janitor run")
+            .register(registry);
+  }
+
+  /**
+   * Start the periodic janitor runs. Called from the StartupInitializer once Stairway is
+   * initialized; does nothing if the janitor is disabled.
+   */
+  public synchronized void start() {
+    if (scheduler != null || !appConfig.isFlightJanitorEnabled()) {
+      return;
+    }
+    long intervalSeconds = appConfig.getFlightJanitorIntervalSeconds();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "flight-janitor");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::runSafely,
+        ThreadLocalRandom.current().nextLong(intervalSeconds + 1),
+        intervalSeconds,
+        TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /** Delete finished flights older than the retention period; returns how many were deleted. */
+  public int purge() {
+    long start = System.nanoTime();
+    Instant cutoff = Instant.now().minus(Duration.ofHours(appConfig.getFlightRetentionHours()));
+    int batchSize = appConfig.getFlightJanitorBatchSize();
+    int purged = 0;
+    try {
+      for (int batch = 0; batch < appConfig.getFlightJanitorMaxBatchesPerRun(); batch++) {
+        int deleted = jobService.purgeCompletedFlights(cutoff, batchSize);
+        purged += deleted;
+        if (deleted < batchSize) {
+          break;
+        }
+      }
+    } finally {
+      Counter counter = purgedCounter;
+      Timer timer = runTimer;
+      if (counter != null) {
+        counter.increment(purged);
+      }
+      if (timer != null) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+    logger.info("Flight janitor deleted {} flights completed before {}", purged, cutoff);
+    return purged;
+  }
+
+  // An exception escaping a scheduled task would cancel all future runs
+  private void runSafely() {
+    try {
+      purge();
+    } catch (RuntimeException ex) {
+      logger.warn("Flight janitor run failed", ex);
+    }
+  }
+}
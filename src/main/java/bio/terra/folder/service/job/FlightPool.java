@@ -0,0 +1,142 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.stairway.Flight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One fixed-size pool of Stairway threads, serving the flight classes assigned to it. Each pool
+ * does its own admission control: at most threads + maxQueued admitted flights may be outstanding
+ * at once, so a burst of one flight class is turned away quickly instead of queueing until it
+ * times out, and never takes threads or queue space from another class.
+ *
+ * <p>Waiting flights are handed to threads round-robin across the subjects that submitted them;
+ * see FairFlightQueue.
+ */
+class FlightPool extends ThreadPoolExecutor implements MeterBinder {
+  private final String name;
+  private final int maxAdmitted;
+  private final Consumer<String> onFlightDone;
+  private final FairFlightQueue queue;
+  private final AtomicInteger admittedCount = new AtomicInteger();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  // Set once metrics are bound; queue waits before that are not recorded
+  private volatile Timer queueWaitTimer;
+
+  /**
+   * @param name pool name, used as the "pool" tag on its metrics
+   * @param threads number of flights run concurrently
+   * @param maxQueued number of admitted flights allowed to wait for a thread
+   * @param onFlightDone called with the flight id of each Flight handed directly to execute() once
+   *     it finishes; tasks created by StairwayThreadPool report their own completion
+   */
+  FlightPool(String name, int threads, int maxQueued, Consumer<String> onFlightDone) {
+    this(name, threads, maxQueued, onFlightDone, new FairFlightQueue(FlightTask::subjectIdOf));
+  }
+
+  private FlightPool(
+      String name,
+      int threads,
+      int maxQueued,
+      Consumer<String> onFlightDone,
+      FairFlightQueue queue) {
+    super(threads, threads, 0L, TimeUnit.MILLISECONDS, queue);
+    this.name = name;
+    this.maxAdmitted = threads + maxQueued;
+    this.onFlightDone = onFlightDone;
+    this.queue = queue;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Tags tags = Tags.of("pool", name);
+    Gauge.builder("stairway.queue.depth", queue, FairFlightQueue::size)
+        .tags(tags)
+        .description("Flights waiting for a Stairway thread")
+        .register(registry);
+    Gauge.builder("stairway.queue.subjects", queue, FairFlightQueue::subjectCount)
+        .tags(tags)
+        .description("Distinct subjects with flights waiting for a Stairway thread")
+        .register(registry);
+    Gauge.builder("stairway.flights.active", this, FlightPool::getActiveCount)
+        .tags(tags)
+        .description("Flights running on a Stairway thread")
+        .register(registry);
+    Gauge.builder("stairway.pool.utilization", this, FlightPool::getUtilization)
+        .tags(tags)
+        .description("Fraction of the pool's threads running flights")
+        .register(registry);
+    Gauge.builder("stairway.flights.admitted", admittedCount, AtomicInteger::get)
+        .tags(tags)
+        .description("Flights admitted and not yet finished")
+        .register(registry);
+    FunctionCounter.builder("stairway.admission.rejected", rejectedCount, AtomicLong::get)
+        .tags(tags)
+        .description("Flights turned away because the queue was full")
+        .register(registry);
+    queueWaitTimer =
+        Timer.builder("stairway.queue.wait")
+            .tags(tags)
+            .description("Time flights spend waiting for a Stairway thread")
+            .register(registry);
+  }
+
+  // Reserve room for a new flight. Returns false, and counts a rejection, when the pool is full.
+  boolean tryAdmit() {
+    while (true) {
+      int admitted = admittedCount.get();
+      if (admitted >= maxAdmitted) {
+        rejectedCount.incrementAndGet();
+        return false;
+      }
+      if (admittedCount.compareAndSet(admitted, admitted + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    admittedCount.decrementAndGet();
+  }
+
+  String getName() {
+    return name;
+  }
+
+  // Fraction of the pool's admission limit in use; at 1 new flights are turned away
+  double getAdmissionFill() {
+    return (double) admittedCount.get() / maxAdmitted;
+  }
+
+  private double getUtilization() {
+    return (double) getActiveCount() / getMaximumPoolSize();
+  }
+
+  @Override
+  protected void beforeExecute(Thread thread, Runnable runnable) {
+    super.beforeExecute(thread, runnable);
+    Timer timer = queueWaitTimer;
+    if (timer != null && runnable instanceof FlightTask) {
+      long waitNanos = System.nanoTime() - ((FlightTask<?>) runnable).getEnqueuedNanos();
+      timer.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  protected void afterExecute(Runnable runnable, Throwable throwable) {
+    super.afterExecute(runnable, throwable);
+    // Flights handed to execute() directly do not go through newTaskFor
+    if (runnable instanceof Flight) {
+      onFlightDone.accept(((Flight) runnable).context().getFlightId());
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.stairway.Flight;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * A flight wrapped for one of the StairwayThreadPool's pools. It remembers which flight it runs,
+ * who submitted it and when it was queued, runs it in the submitting request's trace, and reports
+ * the flight id once it is done, however it finishes.
+ */
+class FlightTask<T> extends FutureTask<T> {
+  // The flight, or null if the task is not a flight
+  private final Flight flight;
+  private final String flightId;
+  private final String subjectId;
+  private final Class<?> flightClass;
+  private final long enqueuedNanos = System.nanoTime();
+  private final Consumer<String> onDone;
+  private final FlightTracing tracing;
+
+  FlightTask(Callable<T> callable, Consumer<String> onDone, FlightTracing tracing) {
+    super(callable);
+    this.flight = asFlight(callable);
+    this.flightId = getFlightId(callable);
+    this.subjectId = getSubjectId(callable);
+    this.flightClass = callable.getClass();
+    this.onDone = onDone;
+    this.tracing = tracing;
+  }
+
+  FlightTask(Runnable runnable, T value, Consumer<String> onDone, FlightTracing tracing) {
+    super(runnable, value);
+    this.flight = asFlight(runnable);
+    this.flightId = getFlightId(runnable);
+    this.subjectId = getSubjectId(runnable);
+    this.flightClass = runnable.getClass();
+    this.onDone = onDone;
+    this.tracing = tracing;
+  }
+
+  // The flight id, or null if the task is not a flight
+  String getFlightId() {
+    return flightId;
+  }
+
+  // The subject that submitted the flight, or null if unknown
+  String getSubjectId() {
+    return subjectId;
+  }
+
+  Class<?> getFlightClass() {
+    return flightClass;
+  }
+
+  long getEnqueuedNanos() {
+    return enqueuedNanos;
+  }
+
+  @Override
+  public void run() {
+    if (flight == null) {
+      super.run();
+    } else {
+      tracing.run(flight, super::run);
+    }
+  }
+
+  @Override
+  protected void done() {
+    if (flightId != null) {
+      onDone.accept(flightId);
+    }
+  }
+
+  private static Flight asFlight(Object task) {
+    return (task instanceof Flight) ? (Flight) task : null;
+  }
+
+  private static String getFlightId(Object task) {
+    if (task instanceof Flight) {
+      return ((Flight) task).context().getFlightId();
+    }
+    return null;
+  }
+
+  // The subject that submitted a queued task's flight, or null if unknown
+  static String subjectIdOf(Runnable task) {
+    if (task instanceof FlightTask) {
+      return ((FlightTask<?>) task).getSubjectId();
+    }
+    return getSubjectId(task);
+  }
+
+  private static String getSubjectId(Object task) {
+    if (task instanceof Flight) {
+      return ((Flight) task)
+          .context()
+          .getInputParameters()
+          .get(JobMapKeys.SUBJECT_ID.getKeyName(), String.class);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,88 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.app.configuration.TracingConfiguration;
+import bio.terra.folder.common.utils.TracingUtils;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.MDC;
+
+/**
+ * Carries the trace context of the request that submits a flight over to the Stairway thread that
+ * runs it. The context is stored in the flight's input parameters when it is submitted, so it
+ * survives the hop to the thread pool and also a restart; the flight then runs in a span that is a
+ * child of the submitting request's, with the request id in the logging MDC.
+ */
+class FlightTracing {
+  private static final TextMapSetter<Map<String, String>> SETTER = Map::put;
+  // The carrier comes back from the FlightMap as a plain Map
+  private static final TextMapGetter<Map<?, ?>> GETTER =
+      new TextMapGetter<Map<?, ?>>() {
+        @Override
+        public Iterable<String> keys(Map<?, ?> carrier) {
+          return carrier.keySet().stream().map(String::valueOf).collect(Collectors.toList());
+        }
+
+        @Override
+        public String get(Map<?, ?> carrier, String key) {
+          Object value = (carrier == null) ? null : carrier.get(key);
+          return (value == null) ? null : value.toString();
+        }
+      };
+
+  private final TextMapPropagator propagator;
+  private final Tracer tracer;
+
+  FlightTracing(OpenTelemetry openTelemetry) {
+    this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    this.tracer = openTelemetry.getTracer(TracingConfiguration.INSTRUMENTATION_NAME);
+  }
+
+  // Record the current trace context in a flight's input parameters before it is submitted
+  void inject(FlightMap inputParameters) {
+    Map<String, String> carrier = new HashMap<>();
+    propagator.inject(Context.current(), carrier, SETTER);
+    if (!carrier.isEmpty()) {
+      inputParameters.put(JobMapKeys.TRACE_CONTEXT.getKeyName(), carrier);
+    }
+  }
+
+  /**
+   * Run a flight in a span linked to the request that submitted it. Flights submitted outside of a
+   * trace, or recovered from before tracing was added, get a new trace.
+   */
+  void run(Flight flight, Runnable body) {
+    FlightMap inputParameters = flight.context().getInputParameters();
+    Map<?, ?> carrier = inputParameters.get(JobMapKeys.TRACE_CONTEXT.getKeyName(), Map.class);
+    Context parent =
+        (carrier == null) ? Context.root() : propagator.extract(Context.root(), carrier, GETTER);
+    Span span =
+        tracer
+            .spanBuilder(flight.getClass().getSimpleName())
+            .setParent(parent)
+            .setAttribute("flight.id", flight.context().getFlightId())
+            .startSpan();
+
+    String requestId = inputParameters.get(JobMapKeys.REQUEST_ID.getKeyName(), String.class);
+    if (requestId != null) {
+      MDC.put(TracingUtils.REQUEST_ID_MDC_KEY, requestId);
+    }
+    try (Scope scope = span.makeCurrent()) {
+      body.run();
+    } finally {
+      span.end();
+      // Pool threads are reused; do not leave this request's id behind
+      MDC.remove(TracingUtils.REQUEST_ID_MDC_KEY);
+    }
+  }
+}
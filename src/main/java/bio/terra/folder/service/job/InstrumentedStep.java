@@ -0,0 +1,99 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.common.utils.MetricsUtils;
+import bio.terra.folder.common.utils.TracingUtils;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.exception.RetryException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Wraps a flight step to instrument each doStep and undoStep. The latency and outcome are recorded
+ * in the "folder.flight.step" timer, tagged by flight class, step class and phase, and each call
+ * runs in its own trace span under the flight's. Flights add their steps through it:
+ *
+ * <pre>
+ *   addStep(new InstrumentedStep(new CreateFolderStep(...), getClass(), meterRegistry, tracer));
+ * </pre>
+ */
+public class InstrumentedStep implements Step {
+  public static final String STEP_TIMER = "folder.flight.step";
+
+  private final Step step;
+  private final MeterRegistry registry;
+  private final Tracer tracer;
+  private final Tags doTags;
+  private final Tags undoTags;
+  private final String doSpanName;
+  private final String undoSpanName;
+
+  public InstrumentedStep(
+      Step step, Class<? extends Flight> flightClass, MeterRegistry registry, Tracer tracer) {
+    this.step = step;
+    this.registry = registry;
+    this.tracer = tracer;
+    String stepName = step.getClass().getSimpleName();
+    Tags tags = Tags.of("flight", flightClass.getSimpleName(), "step", stepName);
+    this.doTags = tags.and("phase", "do");
+    this.undoTags = tags.and("phase", "undo");
+    this.doSpanName = stepName + ".doStep";
+    this.undoSpanName = stepName + ".undoStep";
+  }
+
+  @Override
+  public StepResult doStep(FlightContext flightContext)
+      throws InterruptedException, RetryException {
+    long start = System.nanoTime();
+    Span span = tracer.spanBuilder(doSpanName).startSpan();
+    StepResult result = null;
+    try (Scope scope = span.makeCurrent()) {
+      result = step.doStep(flightContext);
+      return result;
+    } catch (Throwable ex) {
+      TracingUtils.recordError(span, ex);
+      throw ex;
+    } finally {
+      finish(span, doTags, result, start);
+    }
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext flightContext) throws InterruptedException {
+    long start = System.nanoTime();
+    Span span = tracer.spanBuilder(undoSpanName).startSpan();
+    StepResult result = null;
+    try (Scope scope = span.makeCurrent()) {
+      result = step.undoStep(flightContext);
+      return result;
+    } catch (Throwable ex) {
+      TracingUtils.recordError(span, ex);
+      throw ex;
+    } finally {
+      finish(span, undoTags, result, start);
+    }
+  }
+
+  private void finish(Span span, Tags tags, StepResult result, long start) {
+    String outcome = outcomeOf(result);
+    if (MetricsUtils.OUTCOME_FAILURE.equals(outcome)) {
+      span.setStatus(StatusCode.ERROR);
+    }
+    span.end();
+    MetricsUtils.record(registry, STEP_TIMER, tags, outcome, System.nanoTime() - start);
+  }
+
+  // A step that throws never produces a result
+  private static String outcomeOf(StepResult result) {
+    if (result == null) {
+      return MetricsUtils.OUTCOME_ERROR;
+    }
+    return result.isSuccess() ? MetricsUtils.OUTCOME_SUCCESS : MetricsUtils.OUTCOME_FAILURE;
+  }
+}
@@ -30,6 +30,9 @@ public class JobBuilder {
     jobParameterMap.put(JobMapKeys.REQUEST.getKeyName(), request);
     jobParameterMap.put(JobMapKeys.AUTH_USER_INFO.getKeyName(), userReq);
     jobParameterMap.put(JobMapKeys.SUBJECT_ID.getKeyName(), userReq.getSubjectId());
+    if (userReq.getReqId() != null) {
+      jobParameterMap.put(JobMapKeys.REQUEST_ID.getKeyName(), userReq.getReqId().toString());
+    }
   }
 
   // use addParameter method for optional parameter
@@ -8,6 +8,9 @@ public enum JobMapKeys {
   STATUS_CODE("status_code"),
   AUTH_USER_INFO("auth_user_info"),
   SUBJECT_ID("subjectId"),
+  // request id and trace context of the API request that started the flight
+  REQUEST_ID("request_id"),
+  TRACE_CONTEXT("trace_context"),
 
   // parameter for the job
   FLIGHT_CLASS("flight_class");
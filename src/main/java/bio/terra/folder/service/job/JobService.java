@@ -1,13 +1,25 @@
 package bio.terra.folder.service.job;
 
 import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.app.configuration.FlightPoolConfiguration;
 import bio.terra.folder.app.configuration.StairwayJdbcConfiguration;
+import bio.terra.folder.app.configuration.TracingConfiguration;
+import bio.terra.folder.common.exception.InvalidPageTokenException;
+import bio.terra.folder.common.exception.ValidationException;
+import bio.terra.folder.common.utils.MetricsUtils;
+import bio.terra.folder.common.utils.PageTokenUtils;
+import bio.terra.folder.common.utils.TracingUtils;
+import bio.terra.folder.db.JobOwnerDao;
+import bio.terra.folder.db.JobOwnerRecord;
+import bio.terra.folder.db.NotificationListener;
+import bio.terra.folder.generated.model.JobList;
 import bio.terra.folder.generated.model.JobModel;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
 import bio.terra.folder.service.job.exception.InternalStairwayException;
 import bio.terra.folder.service.job.exception.InvalidResultStateException;
 import bio.terra.folder.service.job.exception.JobNotCompleteException;
 import bio.terra.folder.service.job.exception.JobNotFoundException;
+import bio.terra.folder.service.job.exception.JobQueueFullException;
 import bio.terra.folder.service.job.exception.JobResponseException;
 import bio.terra.folder.service.job.exception.JobUnauthorizedException;
 import bio.terra.stairway.Flight;
@@ -21,10 +33,34 @@ import bio.terra.stairway.exception.DatabaseOperationException;
 import bio.terra.stairway.exception.FlightNotFoundException;
 import bio.terra.stairway.exception.StairwayException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,26 +70,98 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 @Component
-public class JobService {
+public class JobService implements MeterBinder {
 
   private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+  // Latency of job submission and waiting, tagged by flight class (where known) and outcome
+  private static final String SUBMIT_TIMER = "folder.job.submit";
+  private static final String SUBMIT_AND_WAIT_TIMER = "folder.job.submit.wait";
+  private static final String WAIT_TIMER = "folder.job.wait";
+  // Completion notices waiting to be sent; more than this and new ones are dropped
+  private static final int COMPLETION_NOTICE_QUEUE_SIZE = 1000;
   private final Stairway stairway;
+  private final StairwayThreadPool threadPool;
   private final ApplicationConfiguration appConfig;
   private final StairwayJdbcConfiguration stairwayJdbcConfiguration;
+  private final JobOwnerDao jobOwnerDao;
+  private final MeterRegistry meterRegistry;
+  private final Tracer tracer;
+  private final FlightTracing flightTracing;
+  // Completed flights never change until they are released, so their states are cached to spare
+  // polling clients the Stairway reads and result map deserialization on every request.
+  private final Cache<String, FlightState> terminalFlights;
+  // Runs the fallback poll sweep and result lookups for callers waiting asynchronously on a job
+  private final ScheduledExecutorService completionExecutor;
+  // The flight each asynchronous waiter is watching, keyed by the waiter's completion future
+  private final ConcurrentHashMap<CompletableFuture<Void>, String> asyncWaiters =
+      new ConcurrentHashMap<>();
+  // Asynchronous jobs submitted here and not yet finished; only these announce their completion
+  // to other instances, since only they can be waited on from elsewhere
+  private final Set<String> announcedJobs = ConcurrentHashMap.newKeySet();
+  // Sends completion notices, so that a slow folder database never holds up a flight thread
+  private final ThreadPoolExecutor noticeExecutor;
 
   @Autowired
   public JobService(
       ApplicationConfiguration appConfig,
       StairwayJdbcConfiguration stairwayJdbcConfiguration,
+      JobOwnerDao jobOwnerDao,
+      NotificationListener notificationListener,
       ApplicationContext applicationContext,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      OpenTelemetry openTelemetry) {
     this.appConfig = appConfig;
     this.stairwayJdbcConfiguration = stairwayJdbcConfiguration;
-
-    ExecutorService executorService =
-        Executors.newFixedThreadPool(appConfig.getMaxStairwayThreads());
+    this.jobOwnerDao = jobOwnerDao;
+    this.meterRegistry = meterRegistry;
+    this.tracer = openTelemetry.getTracer(TracingConfiguration.INSTRUMENTATION_NAME);
+    this.flightTracing = new FlightTracing(openTelemetry);
+    this.terminalFlights =
+        Caffeine.newBuilder()
+            .maximumSize(appConfig.getTerminalFlightCacheMaximumSize())
+            .expireAfterWrite(appConfig.getTerminalFlightCacheExpireSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+    FlightPoolConfiguration defaultPool = new FlightPoolConfiguration();
+    defaultPool.setThreads(appConfig.getMaxStairwayThreads());
+    defaultPool.setMaxQueued(appConfig.getMaxQueuedFlights());
+    threadPool =
+        new StairwayThreadPool(
+            defaultPool, appConfig.getFlightPools(), this::publishCompletion, flightTracing);
+    completionExecutor = new ScheduledThreadPoolExecutor(2);
+    noticeExecutor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(COMPLETION_NOTICE_QUEUE_SIZE),
+            runnable -> {
+              Thread thread = new Thread(runnable, "job-completion-notice");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long pollSeconds = Math.max(1, appConfig.getStairwayPollFallbackSeconds());
+    completionExecutor.scheduleWithFixedDelay(
+        this::pollAsyncWaiters, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    // Flights finished on other instances wake our waiters too
+    notificationListener.subscribe(JobOwnerDao.COMPLETION_CHANNEL, threadPool::complete, () -> {});
     StairwayExceptionSerializer serializer = new StairwayExceptionSerializer(objectMapper);
-    stairway = new Stairway(executorService, applicationContext, serializer);
+    stairway = new Stairway(threadPool, applicationContext, serializer);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    completionExecutor.shutdownNow();
+    noticeExecutor.shutdownNow();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, terminalFlights, "terminalFlight");
+    threadPool.bindTo(registry);
   }
 
   public static class JobResultWithStatus<T> {
@@ -93,10 +201,59 @@ public class JobService {
   // protected method intended to be called only from JobBuilder
   protected String submit(
       Class<? extends Flight> flightClass, FlightMap parameterMap, String jobId) {
+    return submit(flightClass, parameterMap, jobId, true);
+  }
+
+  // Only jobs the caller comes back for are listed. Jobs waited on inline are never listed or
+  // polled, so they skip the job_owner insert.
+  private String submit(
+      Class<? extends Flight> flightClass, FlightMap parameterMap, String jobId, boolean listed) {
+    return MetricsUtils.time(
+        meterRegistry,
+        SUBMIT_TIMER,
+        flightTags(flightClass),
+        () ->
+            TracingUtils.inSpan(
+                tracer,
+                "JobService.submit",
+                () -> submitWorker(flightClass, parameterMap, jobId, listed)));
+  }
+
+  private String submitWorker(
+      Class<? extends Flight> flightClass, FlightMap parameterMap, String jobId, boolean listed) {
+    // Turn work away up front rather than let it queue until it times out
+    if (!threadPool.tryAdmit(jobId, flightClass)) {
+      throw new JobQueueFullException(
+          "Too many jobs are waiting to run; try again later",
+          appConfig.getAdmissionRetryAfterSeconds());
+    }
+    String subjectId =
+        listed ? parameterMap.get(JobMapKeys.SUBJECT_ID.getKeyName(), String.class) : null;
+    if (listed) {
+      // Before submitting, so that a very short flight cannot finish unannounced
+      announcedJobs.add(jobId);
+    }
+    boolean submitted = false;
     try {
+      // Record the owner first so the job is listable as soon as it exists
+      if (subjectId != null) {
+        // Postgres keeps microseconds; truncate so page tokens round-trip exactly
+        jobOwnerDao.addJob(jobId, subjectId, Instant.now().truncatedTo(ChronoUnit.MICROS));
+      }
+      // Let the flight join this request's trace when it runs
+      flightTracing.inject(parameterMap);
       stairway.submit(jobId, flightClass, parameterMap);
+      submitted = true;
     } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } finally {
+      if (!submitted) {
+        threadPool.release(jobId);
+        announcedJobs.remove(jobId);
+        if (subjectId != null) {
+          jobOwnerDao.deleteJob(jobId);
+        }
+      }
     }
     return jobId;
   }
@@ -108,8 +265,30 @@ public class JobService {
       FlightMap parameterMap,
       Class<T> resultClass,
       String jobId) {
-    submit(flightClass, parameterMap, jobId);
-    waitForJob(jobId);
+    return MetricsUtils.time(
+        meterRegistry,
+        SUBMIT_AND_WAIT_TIMER,
+        flightTags(flightClass),
+        () ->
+            TracingUtils.inSpan(
+                tracer,
+                "JobService.submitAndWait",
+                () -> submitAndWaitWorker(flightClass, parameterMap, resultClass, jobId)));
+  }
+
+  private <T> T submitAndWaitWorker(
+      Class<? extends Flight> flightClass,
+      FlightMap parameterMap,
+      Class<T> resultClass,
+      String jobId) {
+    // Watch before submitting so we cannot miss the completion of a very short flight
+    CompletableFuture<Void> completion = threadPool.watch(jobId);
+    try {
+      submit(flightClass, parameterMap, jobId, false);
+      waitForCompletion(jobId, completion);
+    } finally {
+      threadPool.unwatch(jobId, completion);
+    }
     AuthenticatedUserRequest userReq =
         parameterMap.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
 
@@ -117,8 +296,98 @@ public class JobService {
   }
 
   void waitForJob(String jobId) {
+    MetricsUtils.time(
+        meterRegistry,
+        WAIT_TIMER,
+        Tags.empty(),
+        () -> {
+          CompletableFuture<Void> completion = threadPool.watch(jobId);
+          try {
+            // The flight may have finished before we started watching it
+            if (!isFlightDone(jobId)) {
+              waitForCompletion(jobId, completion);
+            }
+          } finally {
+            threadPool.unwatch(jobId, completion);
+          }
+          return null;
+        });
+  }
+
+  private static Tags flightTags(Class<? extends Flight> flightClass) {
+    return Tags.of("flight", flightClass.getSimpleName());
+  }
+
+  private void waitForCompletion(String jobId, CompletableFuture<Void> completion) {
+    TracingUtils.inSpan(
+        tracer,
+        "JobService.waitForCompletion",
+        () -> {
+          awaitCompletion(jobId, completion);
+          return null;
+        });
+  }
+
+  /**
+   * Wait for a flight to finish. We are normally woken by the thread pool as soon as the flight
+   * finishes on this instance. Flights that are not run by our thread pool (for example, ones
+   * recovered at startup) never signal, so every stairwayPollFallbackSeconds we also check the
+   * flight state in the Stairway database.
+   */
+  private void awaitCompletion(String jobId, CompletableFuture<Void> completion) {
+    long pollSeconds = Math.max(1, appConfig.getStairwayPollFallbackSeconds());
+    long deadline =
+        System.nanoTime() + TimeUnit.SECONDS.toNanos(appConfig.getStairwayTimeoutSeconds());
+    try {
+      while (true) {
+        try {
+          completion.get(pollSeconds, TimeUnit.SECONDS);
+          return;
+        } catch (TimeoutException ex) {
+          if (isFlightDone(jobId)) {
+            return;
+          }
+          if (System.nanoTime() - deadline > 0) {
+            throw new InternalStairwayException("Timed out waiting for job " + jobId);
+          }
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException("Interrupted waiting for job " + jobId, ex);
+    } catch (ExecutionException ex) {
+      throw new InternalStairwayException("Failed waiting for job " + jobId, ex);
+    }
+  }
+
+  // Called on the flight thread by the thread pool when a flight it ran finishes. Synchronous jobs
+  // are only waited on here, and are woken by the thread pool. Asynchronous jobs may have waiters
+  // on other instances, so their completion is sent to them in the background. Failing to send it
+  // only costs those waiters their fast wake-up; the fallback poll still finds the job done.
+  private void publishCompletion(String jobId) {
+    if (!announcedJobs.remove(jobId)) {
+      return;
+    }
     try {
-      stairway.waitForFlight(jobId, 10, appConfig.getStairwayTimeoutSeconds() / 10);
+      noticeExecutor.execute(
+          () -> {
+            try {
+              jobOwnerDao.notifyJobCompleted(jobId);
+            } catch (RuntimeException ex) {
+              logger.warn("Failed to publish completion of job {}", jobId, ex);
+            }
+          });
+    } catch (RejectedExecutionException ex) {
+      logger.warn("Too many completion notices queued; dropped the one for job {}", jobId);
+    }
+  }
+
+  // A flight is done once Stairway has recorded its completion time, which it stores together with
+  // the final status and result map. Checking for any status other than RUNNING would also treat
+  // states that are not final as done.
+  private boolean isFlightDone(String jobId) {
+    try {
+      return getFlightState(jobId).getCompleted().isPresent();
     } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
     }
@@ -141,13 +410,61 @@ public class JobService {
     }
   }
 
+  /**
+   * How full each Stairway pool is: the fraction of its admission limit taken by flights admitted
+   * and not yet finished, by pool name. A pool at 1 turns new flights away.
+   */
+  public Map<String, Double> getFlightPoolFill() {
+    return threadPool.getAdmissionFill();
+  }
+
   public void releaseJob(String jobId, AuthenticatedUserRequest userReq) {
     verifyUserAccess(jobId, userReq); // jobId=flightId
     try {
       stairway.deleteFlight(jobId, false);
     } catch (DatabaseOperationException e) {
       throw new InternalStairwayException("Error in Stairway while deleting flight " + jobId, e);
+    } finally {
+      terminalFlights.invalidate(jobId);
+    }
+    jobOwnerDao.deleteJob(jobId);
+  }
+
+  /**
+   * Delete up to batchSize flights that completed before the cutoff, along with their ownership
+   * records. Used by the FlightJanitor; returns the number of flights deleted, so the caller can
+   * tell whether more remain.
+   */
+  public int purgeCompletedFlights(Instant completedBefore, int batchSize) {
+    List<FlightState> flightStateList;
+    try {
+      FlightFilter filter = new FlightFilter();
+      // Running flights have no completed time, so they never match
+      filter.addFilterCompletedTime(FlightFilterOp.LESS_THAN, completedBefore);
+      flightStateList = stairway.getFlights(0, batchSize, filter);
+    } catch (StairwayException stairwayEx) {
+      throw new InternalStairwayException(stairwayEx);
+    }
+
+    List<String> jobIds = new ArrayList<>();
+    try {
+      for (FlightState flightState : flightStateList) {
+        String jobId = flightState.getFlightId();
+        try {
+          stairway.deleteFlight(jobId, false);
+        } catch (DatabaseOperationException e) {
+          throw new InternalStairwayException(
+              "Error in Stairway while deleting flight " + jobId, e);
+        } finally {
+          terminalFlights.invalidate(jobId);
+        }
+        jobIds.add(jobId);
+      }
+    } finally {
+      // Drop the ownership records of whatever was deleted, even if a later delete failed
+      jobOwnerDao.deleteJobs(jobIds);
     }
+    return jobIds.size();
   }
 
   public JobModel mapFlightStateToJobModel(FlightState flightState) {
@@ -217,14 +534,142 @@ public class JobService {
     return jobModelList;
   }
 
+  /**
+   * List one page of the caller's jobs in submission order. The caller's job ids come from one
+   * index range scan of the job_owner table; only the jobs on the page are loaded from Stairway.
+   */
+  public JobList listJobs(int limit, String pageToken, AuthenticatedUserRequest userReq) {
+    PageTokenUtils.validateLimit(limit);
+    Instant afterSubmitted = null;
+    String afterFlightId = null;
+    if (pageToken != null) {
+      List<String> cursor = PageTokenUtils.decode(pageToken, 2);
+      try {
+        afterSubmitted = Instant.parse(cursor.get(0));
+      } catch (DateTimeParseException ex) {
+        throw new InvalidPageTokenException("Invalid page token: " + pageToken, ex);
+      }
+      afterFlightId = cursor.get(1);
+    }
+
+    List<JobOwnerRecord> owners =
+        jobOwnerDao.listJobs(userReq.getSubjectId(), afterSubmitted, afterFlightId, limit);
+    List<JobModel> jobModelList = new ArrayList<>();
+    for (JobOwnerRecord owner : owners) {
+      try {
+        jobModelList.add(mapFlightStateToJobModel(getFlightState(owner.getFlightId())));
+      } catch (FlightNotFoundException ex) {
+        // The flight was removed from Stairway without going through releaseJob; skip it
+        logger.info("Listed job {} no longer exists in Stairway", owner.getFlightId());
+      } catch (StairwayException stairwayEx) {
+        throw new InternalStairwayException(stairwayEx);
+      }
+    }
+
+    JobList jobList = new JobList().jobs(jobModelList);
+    if (owners.size() == limit) {
+      JobOwnerRecord last = owners.get(owners.size() - 1);
+      jobList.setNextPageToken(
+          PageTokenUtils.encode(
+              Arrays.asList(last.getSubmitted().toString(), last.getFlightId())));
+    }
+    return jobList;
+  }
+
   public JobModel retrieveJob(String jobId, AuthenticatedUserRequest userReq) {
+    FlightState flightState = verifyUserAccess(jobId, userReq); // jobId=flightId
+    return mapFlightStateToJobModel(flightState);
+  }
 
+  /**
+   * Long-poll variant of retrieveJob: wait up to waitSeconds, capped at maxJobWaitSeconds, for the
+   * job to finish before returning its model. A job that is still running when the wait ends is
+   * returned as-is.
+   */
+  public JobModel retrieveJob(String jobId, AuthenticatedUserRequest userReq, int waitSeconds) {
+    if (waitSeconds < 0) {
+      throw new ValidationException("waitSeconds must not be negative");
+    }
+    // Longer waits are cut short rather than rejected, so clients need not know the limit
+    waitSeconds = Math.min(waitSeconds, appConfig.getMaxJobWaitSeconds());
+    if (waitSeconds == 0) {
+      return retrieveJob(jobId, userReq);
+    }
+
+    CompletableFuture<JobModel> jobDone = whenJobDone(jobId, userReq);
     try {
-      verifyUserAccess(jobId, userReq); // jobId=flightId
-      FlightState flightState = stairway.getFlightState(jobId);
-      return mapFlightStateToJobModel(flightState);
-    } catch (StairwayException stairwayEx) {
-      throw new InternalStairwayException(stairwayEx);
+      return jobDone.get(waitSeconds, TimeUnit.SECONDS);
+    } catch (TimeoutException ex) {
+      jobDone.cancel(false);
+      return retrieveJob(jobId, userReq);
+    } catch (InterruptedException ex) {
+      jobDone.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException("Interrupted waiting for job " + jobId, ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new InternalStairwayException("Failed waiting for job " + jobId, ex);
+    }
+  }
+
+  /**
+   * Returns a future that completes with the job's model once the job has finished, or right away
+   * if it already has. The future is completed when this instance's thread pool finishes the flight
+   * or another instance announces that it did; every stairwayPollFallbackSeconds a single sweep
+   * also checks the Stairway database for every job being waited on, in case neither happens.
+   * Cancel the future to stop waiting.
+   *
+   * <p>Access is checked before returning, so an unknown or unauthorized job throws here rather
+   * than failing the future.
+   */
+  public CompletableFuture<JobModel> whenJobDone(String jobId, AuthenticatedUserRequest userReq) {
+    // Watch before looking at the state so we cannot miss a completion in between
+    CompletableFuture<Void> completion = threadPool.watch(jobId);
+    CompletableFuture<JobModel> jobDone = new CompletableFuture<>();
+    FlightState flightState;
+    try {
+      flightState = verifyUserAccess(jobId, userReq); // jobId=flightId
+    } catch (RuntimeException ex) {
+      threadPool.unwatch(jobId, completion);
+      throw ex;
+    }
+    if (flightState.getCompleted().isPresent()) {
+      threadPool.unwatch(jobId, completion);
+      jobDone.complete(mapFlightStateToJobModel(flightState));
+      return jobDone;
+    }
+
+    asyncWaiters.put(completion, jobId);
+    completion.thenRunAsync(
+        () -> {
+          try {
+            jobDone.complete(retrieveJob(jobId, userReq));
+          } catch (RuntimeException ex) {
+            jobDone.completeExceptionally(ex);
+          }
+        },
+        completionExecutor);
+    jobDone.whenComplete(
+        (jobModel, ex) -> {
+          asyncWaiters.remove(completion);
+          threadPool.unwatch(jobId, completion);
+        });
+    return jobDone;
+  }
+
+  // Fallback for asynchronous waiters: check each job being waited on once, and wake all of its
+  // waiters if it has finished.
+  private void pollAsyncWaiters() {
+    for (String jobId : new HashSet<>(asyncWaiters.values())) {
+      try {
+        if (isFlightDone(jobId)) {
+          threadPool.complete(jobId);
+        }
+      } catch (RuntimeException ex) {
+        logger.warn("Fallback poll of job {} failed", jobId, ex);
+      }
     }
   }
 
@@ -253,18 +698,12 @@ public class JobService {
    */
   public <T> JobResultWithStatus<T> retrieveJobResult(
       String jobId, Class<T> resultClass, AuthenticatedUserRequest userReq) {
-
-    try {
-      verifyUserAccess(jobId, userReq); // jobId=flightId
-      return retrieveJobResultWorker(jobId, resultClass);
-    } catch (StairwayException stairwayEx) {
-      throw new InternalStairwayException(stairwayEx);
-    }
+    FlightState flightState = verifyUserAccess(jobId, userReq); // jobId=flightId
+    return retrieveJobResultWorker(flightState, resultClass);
   }
 
-  private <T> JobResultWithStatus<T> retrieveJobResultWorker(String jobId, Class<T> resultClass)
-      throws StairwayException {
-    FlightState flightState = stairway.getFlightState(jobId);
+  private <T> JobResultWithStatus<T> retrieveJobResultWorker(
+      FlightState flightState, Class<T> resultClass) {
     FlightMap resultMap = flightState.getResultMap().orElse(null);
     if (resultMap == null) {
       throw new InvalidResultStateException("No result map returned from flight");
@@ -311,19 +750,36 @@ public class JobService {
     return resultMap;
   }
 
-  private void verifyUserAccess(String jobId, AuthenticatedUserRequest userReq) {
+  // Check the caller owns the job and return its state, so callers need not load it again
+  private FlightState verifyUserAccess(String jobId, AuthenticatedUserRequest userReq) {
     try {
-      FlightState flightState = stairway.getFlightState(jobId);
+      FlightState flightState = getFlightState(jobId);
       FlightMap inputParameters = flightState.getInputParameters();
       String flightSubjectId =
           inputParameters.get(JobMapKeys.SUBJECT_ID.getKeyName(), String.class);
       if (!StringUtils.equals(flightSubjectId, userReq.getSubjectId())) {
         throw new JobUnauthorizedException("Unauthorized");
       }
+      return flightState;
     } catch (DatabaseOperationException ex) {
       throw new InternalStairwayException("Stairway exception looking up the job", ex);
     } catch (FlightNotFoundException ex) {
       throw new JobNotFoundException("Job not found", ex);
     }
   }
+
+  // Load a flight's state, serving completed flights from the cache. Flights without a completion
+  // time may still change, so they are always read from Stairway and never cached.
+  private FlightState getFlightState(String jobId)
+      throws DatabaseOperationException, FlightNotFoundException {
+    FlightState flightState = terminalFlights.getIfPresent(jobId);
+    if (flightState != null) {
+      return flightState;
+    }
+    flightState = stairway.getFlightState(jobId);
+    if (flightState.getCompleted().isPresent()) {
+      terminalFlights.put(jobId, flightState);
+    }
+    return flightState;
+  }
 }
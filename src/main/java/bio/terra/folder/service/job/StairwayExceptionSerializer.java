@@ -6,17 +6,26 @@ import bio.terra.folder.service.job.exception.JobResponseException;
 import bio.terra.stairway.ExceptionSerializer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 
 public class StairwayExceptionSerializer implements ExceptionSerializer {
-  private ObjectMapper objectMapper;
+  private final ObjectWriter fieldsWriter;
+  private final ObjectReader fieldsReader;
+  // Only exceptions in the registry can be rehydrated; see ExceptionConstructorRegistry
+  private final ExceptionConstructorRegistry registry;
 
   public StairwayExceptionSerializer(ObjectMapper objectMapper) {
-    this.objectMapper = objectMapper;
+    this(objectMapper, ExceptionConstructorRegistry.createDefault());
+  }
+
+  StairwayExceptionSerializer(ObjectMapper objectMapper, ExceptionConstructorRegistry registry) {
+    // Readers and writers bound to the one type we handle skip a type lookup on every call
+    this.fieldsWriter = objectMapper.writerFor(StairwayExceptionFields.class);
+    this.fieldsReader = objectMapper.readerFor(StairwayExceptionFields.class);
+    this.registry = registry;
   }
 
   @Override
@@ -44,7 +53,7 @@ public class StairwayExceptionSerializer implements ExceptionSerializer {
     }
 
     try {
-      return objectMapper.writeValueAsString(fields);
+      return fieldsWriter.writeValueAsString(fields);
     } catch (JsonProcessingException ex) {
       // The StairwayExceptionFields object is a very simple POJO and should never cause
       // JSON processing to fail.
@@ -61,59 +70,25 @@ public class StairwayExceptionSerializer implements ExceptionSerializer {
     // Decode the exception fields from JSON
     StairwayExceptionFields fields;
     try {
-      fields = objectMapper.readValue(serializedException, StairwayExceptionFields.class);
+      fields = fieldsReader.readValue(serializedException);
     } catch (IOException ex) {
       // objectMapper exceptions
       return new ExceptionSerializerException(
           "Failed to deserialize exception data: " + serializedException, ex);
     }
 
-    // Find the class from the class name
-    Class<?> clazz;
-    try {
-      clazz = Class.forName(fields.getClassName());
-    } catch (ClassNotFoundException ex) {
-      return new ExceptionSerializerException(
-          "Exception class not found: "
-              + fields.getClassName()
-              + "; Exception message: "
-              + fields.getMessage());
-    }
-
-    // If this is an ErrorReport exception and the exception exposes a constructor with the
-    // error details, then we try to use that.
-    if (fields.isErrorReportException()) {
-      try {
-        Constructor<?> ctor = clazz.getConstructor(String.class, List.class);
-        Object object = ctor.newInstance(fields.getMessage(), fields.getErrorDetails());
-        return (Exception) object;
-      } catch (NoSuchMethodException
-          | SecurityException
-          | InstantiationException
-          | IllegalAccessException
-          | IllegalArgumentException
-          | InvocationTargetException ex) {
-        // We didn't find a constructor with error details or construction failed. Fall through
-      }
-    }
-
-    // We have either an ErrorReport exception that doesn't support error details or some other
-    // runtime exception
-    try {
-      Constructor<?> ctor = clazz.getConstructor(String.class);
-      Object object = ctor.newInstance(fields.getMessage());
-      return (Exception) object;
-    } catch (NoSuchMethodException
-        | SecurityException
-        | InstantiationException
-        | IllegalAccessException
-        | IllegalArgumentException
-        | InvocationTargetException ex) {
-      // We didn't find a vanilla constructor or construction failed. Fall through
+    Exception exception =
+        registry.construct(
+            fields.getClassName(),
+            fields.getMessage(),
+            fields.isErrorReportException(),
+            fields.getErrorDetails());
+    if (exception != null) {
+      return exception;
     }
 
     return new ExceptionSerializerException(
-        "Failed to construct exception: "
+        "Exception class not allowed or failed to construct: "
             + fields.getClassName()
             + "; Exception message: "
             + fields.getMessage());
@@ -0,0 +1,208 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.app.configuration.FlightPoolConfiguration;
+import bio.terra.folder.service.job.exception.InternalStairwayException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The executor handed to Stairway for running flights. It routes each flight to the {@link
+ * FlightPool} configured for the flight's class, or to the default pool, so that slow flight
+ * classes cannot starve latency-sensitive ones.
+ *
+ * <p>Besides running flights, it lets JobService register interest in a flight and be told as soon
+ * as that flight's task finishes on this instance, instead of polling the Stairway database for a
+ * terminal state. Completions of flights run elsewhere can be fed in through {@link
+ * #complete(String)}. Notification is best-effort: a flight that is recovered or run by some other
+ * means may never complete a watcher, so callers must keep a polling fallback.
+ *
+ * <p>New flights must be admitted with {@link #tryAdmit(String, Class)} before they are submitted
+ * to Stairway; see FlightPool. Flights Stairway recovers at startup are not admitted and do not
+ * count against the limits.
+ */
+class StairwayThreadPool extends AbstractExecutorService implements MeterBinder {
+  static final String DEFAULT_POOL = "default";
+
+  // Each watcher gets its own future, so one watcher giving up does not affect the others. The
+  // sets are only touched inside ConcurrentHashMap compute methods.
+  private final ConcurrentHashMap<String, Set<CompletableFuture<Void>>> completions =
+      new ConcurrentHashMap<>();
+  // Pool holding each admitted flight's reservation, until the flight finishes
+  private final ConcurrentHashMap<String, FlightPool> admittedFlights = new ConcurrentHashMap<>();
+  private final Consumer<String> onFlightDone;
+  private final FlightTracing tracing;
+  private final List<FlightPool> pools = new ArrayList<>();
+  private final Map<Class<?>, FlightPool> poolsByFlightClass = new HashMap<>();
+  private final FlightPool defaultPool;
+
+  /**
+   * @param defaultConfig sizing of the pool for flights not assigned to a named pool
+   * @param poolConfigs named pools and the flight classes they run
+   * @param onFlightDone called with the flight id after each flight run by this executor finishes
+   * @param tracing links each flight to the trace of the request that submitted it
+   */
+  StairwayThreadPool(
+      FlightPoolConfiguration defaultConfig,
+      Map<String, FlightPoolConfiguration> poolConfigs,
+      Consumer<String> onFlightDone,
+      FlightTracing tracing) {
+    this.onFlightDone = onFlightDone;
+    this.tracing = tracing;
+    defaultPool = newPool(DEFAULT_POOL, defaultConfig);
+    for (Map.Entry<String, FlightPoolConfiguration> entry : poolConfigs.entrySet()) {
+      FlightPool pool = newPool(entry.getKey(), entry.getValue());
+      for (String className : entry.getValue().getFlightClasses()) {
+        try {
+          poolsByFlightClass.put(Class.forName(className), pool);
+        } catch (ClassNotFoundException ex) {
+          throw new InternalStairwayException(
+              "Unknown flight class " + className + " in flight pool " + entry.getKey(), ex);
+        }
+      }
+    }
+  }
+
+  private FlightPool newPool(String name, FlightPoolConfiguration config) {
+    FlightPool pool =
+        new FlightPool(name, config.getThreads(), config.getMaxQueued(), this::flightDone);
+    pools.add(pool);
+    return pool;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    pools.forEach(pool -> pool.bindTo(registry));
+  }
+
+  // Reserve room for a new flight in its class's pool. Returns false when that pool is full.
+  boolean tryAdmit(String flightId, Class<?> flightClass) {
+    FlightPool pool = poolFor(flightClass);
+    if (!pool.tryAdmit()) {
+      return false;
+    }
+    admittedFlights.put(flightId, pool);
+    return true;
+  }
+
+  // Give back a flight's reservation; called when it finishes or fails to submit.
+  void release(String flightId) {
+    FlightPool pool = admittedFlights.remove(flightId);
+    if (pool != null) {
+      pool.release();
+    }
+  }
+
+  // Fraction of each pool's admission limit in use, by pool name
+  Map<String, Double> getAdmissionFill() {
+    Map<String, Double> fill = new HashMap<>();
+    pools.forEach(pool -> fill.put(pool.getName(), pool.getAdmissionFill()));
+    return fill;
+  }
+
+  // Register interest in a flight. The returned future completes when the flight's task finishes.
+  CompletableFuture<Void> watch(String flightId) {
+    CompletableFuture<Void> completion = new CompletableFuture<>();
+    completions.compute(
+        flightId,
+        (id, watchers) -> {
+          Set<CompletableFuture<Void>> result = (watchers == null) ? new HashSet<>() : watchers;
+          result.add(completion);
+          return result;
+        });
+    return completion;
+  }
+
+  // Drop interest in a flight; always called by the watcher so entries never outlive the wait.
+  void unwatch(String flightId, CompletableFuture<Void> completion) {
+    completions.computeIfPresent(
+        flightId,
+        (id, watchers) -> {
+          watchers.remove(completion);
+          return watchers.isEmpty() ? null : watchers;
+        });
+  }
+
+  // Wake everyone watching a flight, for example when another instance reports it finished.
+  void complete(String flightId) {
+    Set<CompletableFuture<Void>> watchers = completions.remove(flightId);
+    if (watchers != null) {
+      watchers.forEach(completion -> completion.complete(null));
+    }
+  }
+
+  private void flightDone(String flightId) {
+    release(flightId);
+    complete(flightId);
+    onFlightDone.accept(flightId);
+  }
+
+  private FlightPool poolFor(Class<?> flightClass) {
+    return poolsByFlightClass.getOrDefault(flightClass, defaultPool);
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+    return new FlightTask<>(callable, this::flightDone, tracing);
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    return new FlightTask<>(runnable, value, this::flightDone, tracing);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Class<?> flightClass =
+        (command instanceof FlightTask)
+            ? ((FlightTask<?>) command).getFlightClass()
+            : command.getClass();
+    poolFor(flightClass).execute(command);
+  }
+
+  @Override
+  public void shutdown() {
+    pools.forEach(FlightPool::shutdown);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> pending = new ArrayList<>();
+    pools.forEach(pool -> pending.addAll(pool.shutdownNow()));
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return pools.stream().allMatch(FlightPool::isShutdown);
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return pools.stream().allMatch(FlightPool::isTerminated);
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (FlightPool pool : pools) {
+      long remaining = deadline - System.nanoTime();
+      if (!pool.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
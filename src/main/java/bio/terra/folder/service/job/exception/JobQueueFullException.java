@@ -0,0 +1,13 @@
+package bio.terra.folder.service.job.exception;
+
+import bio.terra.folder.common.exception.TooManyRequestsException;
+
+public class JobQueueFullException extends TooManyRequestsException {
+  public JobQueueFullException(String message, int retryAfterSeconds) {
+    super(message, retryAfterSeconds);
+  }
+
+  public JobQueueFullException(String message, Throwable cause, int retryAfterSeconds) {
+    super(message, cause, retryAfterSeconds);
+  }
+}
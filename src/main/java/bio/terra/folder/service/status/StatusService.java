@@ -0,0 +1,177 @@
+package bio.terra.folder.service.status;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import bio.terra.folder.app.configuration.JdbcConfiguration;
+import bio.terra.folder.app.configuration.StairwayJdbcConfiguration;
+import bio.terra.folder.generated.model.SystemStatus;
+import bio.terra.folder.generated.model.SystemStatusSystems;
+import bio.terra.folder.service.iam.SamService;
+import bio.terra.folder.service.job.JobService;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the health of the systems this service depends on in the background, so that the status
+ * endpoint answers from memory. Load balancers poll it often; it must stay fast and must not open
+ * database connections or call Sam itself.
+ *
+ * <p>Every folder.statusCheckIntervalSeconds the checks run one after another on a single thread:
+ *
+ * <ul>
+ *   <li>folderDatabase and stairwayDatabase: a connection from each pool passes validation;
+ *   <li>stairwayPools: no flight pool is full and turning flights away;
+ *   <li>sam: Sam reports itself ok; see {@link SamService#status()}.
+ * </ul>
+ *
+ * Only the databases decide the overall status. A full pool or an unreachable Sam degrades some
+ * requests but does not make this instance worse than any other, and taking it out of rotation for
+ * that would only move the load elsewhere. If no check has completed for
+ * folder.statusStaleSeconds, the checks themselves are stuck and the status is not ok.
+ */
+@Component
+public class StatusService {
+  private static final Logger logger = LoggerFactory.getLogger(StatusService.class);
+
+  private final ApplicationConfiguration appConfig;
+  private final FolderManagerJdbcConfiguration folderJdbcConfiguration;
+  private final StairwayJdbcConfiguration stairwayJdbcConfiguration;
+  private final JobService jobService;
+  private final SamService samService;
+  private ScheduledExecutorService scheduler;
+  // Results of the latest checks; null until they first complete
+  private volatile CheckResult latest;
+
+  // A status and when the checks that produced it completed, published together
+  private static class CheckResult {
+    private final SystemStatus status;
+    private final long checkedAtNanos;
+
+    private CheckResult(SystemStatus status, long checkedAtNanos) {
+      this.status = status;
+      this.checkedAtNanos = checkedAtNanos;
+    }
+  }
+
+  @Autowired
+  public StatusService(
+      ApplicationConfiguration appConfig,
+      FolderManagerJdbcConfiguration folderJdbcConfiguration,
+      StairwayJdbcConfiguration stairwayJdbcConfiguration,
+      JobService jobService,
+      SamService samService) {
+    this.appConfig = appConfig;
+    this.folderJdbcConfiguration = folderJdbcConfiguration;
+    this.stairwayJdbcConfiguration = stairwayJdbcConfiguration;
+    this.jobService = jobService;
+    this.samService = samService;
+  }
+
+  /** Start the periodic checks. Called from the StartupInitializer once Stairway is initialized. */
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "status-checks");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::checkSafely, 0, appConfig.getStatusCheckIntervalSeconds(), TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /** The status from the latest checks. Never blocks. */
+  public SystemStatus getCurrentStatus() {
+    CheckResult current = latest;
+    if (current == null) {
+      return new SystemStatus()
+          .ok(false)
+          .putSystemsItem(
+              "statusChecks",
+              new SystemStatusSystems().ok(false).addMessagesItem("Checks have not run yet"));
+    }
+    long ageSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - current.checkedAtNanos);
+    if (ageSeconds < appConfig.getStatusStaleSeconds()) {
+      return current.status;
+    }
+    SystemStatus stale =
+        new SystemStatus().ok(false).systems(new TreeMap<>(current.status.getSystems()));
+    return stale.putSystemsItem(
+        "statusChecks",
+        new SystemStatusSystems()
+            .ok(false)
+            .addMessagesItem("Last checks completed " + ageSeconds + " seconds ago"));
+  }
+
+  /** Run all the checks now and publish their results. */
+  public void check() {
+    SystemStatusSystems folderDatabase = checkDatabase(folderJdbcConfiguration);
+    SystemStatusSystems stairwayDatabase = checkDatabase(stairwayJdbcConfiguration);
+
+    Map<String, SystemStatusSystems> systems = new TreeMap<>();
+    systems.put("folderDatabase", folderDatabase);
+    systems.put("stairwayDatabase", stairwayDatabase);
+    systems.put("stairwayPools", checkFlightPools());
+    systems.put("sam", samService.status());
+    SystemStatus status =
+        new SystemStatus()
+            .ok(folderDatabase.getOk() && stairwayDatabase.getOk())
+            .systems(systems);
+    latest = new CheckResult(status, System.nanoTime());
+  }
+
+  private SystemStatusSystems checkDatabase(JdbcConfiguration jdbcConfiguration) {
+    try (Connection connection = jdbcConfiguration.getDataSource().getConnection()) {
+      if (connection.isValid(jdbcConfiguration.getValidationQueryTimeoutSeconds())) {
+        return new SystemStatusSystems().ok(true);
+      }
+      return new SystemStatusSystems().ok(false).addMessagesItem("Connection is not valid");
+    } catch (SQLException | RuntimeException ex) {
+      return new SystemStatusSystems().ok(false).addMessagesItem(ex.getMessage());
+    }
+  }
+
+  private SystemStatusSystems checkFlightPools() {
+    SystemStatusSystems pools = new SystemStatusSystems().ok(true);
+    Map<String, Double> fillByPool = new TreeMap<>(jobService.getFlightPoolFill());
+    for (Map.Entry<String, Double> entry : fillByPool.entrySet()) {
+      double fill = entry.getValue();
+      if (fill >= 1.0) {
+        pools.ok(false);
+      }
+      pools.addMessagesItem(
+          String.format("%s pool %.0f%% full", entry.getKey(), Math.min(fill, 1.0) * 100));
+    }
+    return pools;
+  }
+
+  // An exception escaping a scheduled task would cancel all future runs
+  private void checkSafely() {
+    try {
+      check();
+    } catch (RuntimeException ex) {
+      logger.warn("Status checks failed", ex);
+    }
+  }
+}
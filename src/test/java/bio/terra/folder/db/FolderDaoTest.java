@@ -7,17 +7,35 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import bio.terra.folder.app.Main;
 import bio.terra.folder.app.configuration.FolderManagerJdbcConfiguration;
+import bio.terra.folder.db.exception.FolderNotFoundException;
+import bio.terra.folder.db.exception.InvalidFolderMoveException;
+import bio.terra.folder.service.folder.exception.NameConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
@@ -29,11 +47,14 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 @SpringBootTest
 @AutoConfigureMockMvc
 public class FolderDaoTest {
+  private static final Logger logger = LoggerFactory.getLogger(FolderDaoTest.class);
 
   @Autowired FolderManagerJdbcConfiguration jdbcConfiguration;
 
   @Autowired FolderDao folderDao;
 
+  @Autowired MeterRegistry meterRegistry;
+
   private NamedParameterJdbcTemplate jdbcTemplate;
 
   private UUID folderId;
@@ -126,4 +147,238 @@ public class FolderDaoTest {
   public void deleteNonExistentFolderFails() throws Exception {
     assertFalse(folderDao.deleteFolder(folderId.toString()));
   }
+
+  @Test
+  public void closureTracksAncestorsAndDescendants() throws Exception {
+    String rootId = createFolder("closureRoot", null);
+    String childId = createFolder("closureChild", rootId);
+    String grandchildId = createFolder("closureGrandchild", childId);
+
+    assertThat(folderDao.getAncestorIds(grandchildId), equalTo(Arrays.asList(childId, rootId)));
+    assertThat(folderDao.getDescendantIds(rootId), equalTo(Arrays.asList(childId, grandchildId)));
+    assertThat(folderDao.getFolderDepth(rootId), equalTo(0));
+    assertThat(folderDao.getFolderDepth(grandchildId), equalTo(2));
+
+    folderDao.deleteFolder(grandchildId);
+    assertThat(folderDao.getDescendantIds(rootId), equalTo(Collections.singletonList(childId)));
+  }
+
+  @Test
+  public void moveFolderUpdatesClosure() throws Exception {
+    String firstRootId = createFolder("firstRoot", null);
+    String secondRootId = createFolder("secondRoot", null);
+    String childId = createFolder("movedChild", firstRootId);
+    String grandchildId = createFolder("movedGrandchild", childId);
+
+    folderDao.moveFolder(childId, secondRootId);
+
+    assertThat(
+        folderDao.getAncestorIds(grandchildId), equalTo(Arrays.asList(childId, secondRootId)));
+    assertThat(folderDao.getDescendantIds(firstRootId), equalTo(Collections.emptyList()));
+
+    folderDao.moveFolder(childId, null);
+    assertThat(folderDao.getFolderDepth(childId), equalTo(0));
+    assertThat(folderDao.getFolderDepth(grandchildId), equalTo(1));
+  }
+
+  @Test
+  public void daoMethodsAreTimedOnce() throws Exception {
+    String rootId = createFolder("timedRoot", null);
+    String childId = createFolder("timedChild", null);
+    long movesBefore = queryCount("moveFolder");
+    long ancestorReadsBefore = queryCount("getAncestorIds");
+
+    folderDao.moveFolder(childId, rootId);
+
+    // The ancestor read inside moveFolder is part of the move, not a separate query
+    assertThat(queryCount("moveFolder"), equalTo(movesBefore + 1));
+    assertThat(queryCount("getAncestorIds"), equalTo(ancestorReadsBefore));
+  }
+
+  @Test
+  public void moveFolderIntoDescendantFails() throws Exception {
+    String rootId = createFolder("cycleRoot", null);
+    String childId = createFolder("cycleChild", rootId);
+
+    assertThrows(
+        InvalidFolderMoveException.class,
+        () -> {
+          folderDao.moveFolder(rootId, childId);
+        });
+  }
+
+  @Test
+  public void moveFolderIntoItselfFails() throws Exception {
+    String rootId = createFolder("selfMoveRoot", null);
+
+    assertThrows(
+        InvalidFolderMoveException.class,
+        () -> {
+          folderDao.moveFolder(rootId, rootId);
+        });
+    assertThat(folderDao.getFolderDepth(rootId), equalTo(0));
+  }
+
+  @Test
+  public void concurrentCrossMovesAreSerialized() throws Exception {
+    // Each move alone is fine, but together they would make a cycle. Whichever move commits
+    // second must see the first, after a retry if they overlapped, and fail its cycle check.
+    String firstId = createFolder("crossMoveFirst", null);
+    String secondId = createFolder("crossMoveSecond", null);
+    AtomicInteger invalidMoves = new AtomicInteger();
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (List<String> move :
+        Arrays.asList(Arrays.asList(firstId, secondId), Arrays.asList(secondId, firstId))) {
+      futures.add(
+          pool.submit(
+              () -> {
+                start.await();
+                try {
+                  folderDao.moveFolder(move.get(0), move.get(1));
+                } catch (InvalidFolderMoveException e) {
+                  invalidMoves.incrementAndGet();
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    // A serialization failure that escaped the retries would fail the test here
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertThat(invalidMoves.get(), equalTo(1));
+    assertThat(
+        folderDao.getFolderDepth(firstId) + folderDao.getFolderDepth(secondId), equalTo(1));
+  }
+
+  @Test
+  public void parentFolderInfoReadInOneQuery() throws Exception {
+    folderDao.createFolder(
+        folderId.toString(),
+        "infoParent",
+        JsonNullable.undefined(),
+        JsonNullable.of(spendProfileId.toString()),
+        false);
+    createFolder("takenName", folderId.toString());
+
+    ParentFolderInfo taken = folderDao.getParentFolderInfo(folderId.toString(), "takenName");
+    assertThat(taken.getSpendProfileId(), equalTo(spendProfileId.toString()));
+    assertThat(taken.isFolderNameInUse(), equalTo(true));
+    assertThat(taken.isObjectNameInUse(), equalTo(false));
+
+    ParentFolderInfo free = folderDao.getParentFolderInfo(folderId.toString(), "freeName");
+    assertThat(free.isFolderNameInUse(), equalTo(false));
+
+    assertThrows(
+        FolderNotFoundException.class,
+        () -> {
+          folderDao.getParentFolderInfo(UUID.randomUUID().toString(), "anyName");
+        });
+  }
+
+  @Test
+  public void concurrentSiblingCreatesOnlyConflictOnNames() throws Exception {
+    String parentId = createFolder("stressParent", null);
+    int creates = 200;
+    int distinctNames = 180;
+    AtomicInteger nameConflicts = new AtomicInteger();
+    AtomicInteger aborts = new AtomicInteger();
+
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    List<Future<?>> futures = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < creates; i++) {
+      String name = "sibling-" + (i % distinctNames);
+      futures.add(
+          pool.submit(
+              () -> {
+                try {
+                  createFolder(name, parentId);
+                } catch (NameConflictException e) {
+                  nameConflicts.incrementAndGet();
+                } catch (RuntimeException e) {
+                  aborts.incrementAndGet();
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+
+    logger.info(
+        "Concurrent sibling creates: {} creates, {} name conflicts, abort rate {}, {} creates/sec",
+        creates,
+        nameConflicts.get(),
+        (double) aborts.get() / creates,
+        String.format("%.1f", creates / seconds));
+    assertThat(aborts.get(), equalTo(0));
+    assertThat(nameConflicts.get(), equalTo(creates - distinctNames));
+    assertThat(folderDao.getDescendantIds(parentId).size(), equalTo(distinctNames));
+  }
+
+  @Test
+  public void duplicateFolderIdIsNotANameConflict() throws Exception {
+    String parentId = createFolder("duplicateIdParent", null);
+    folderDao.createFolder(
+        folderId.toString(),
+        "firstName",
+        JsonNullable.of(parentId),
+        JsonNullable.undefined(),
+        false);
+
+    assertThrows(
+        DuplicateKeyException.class,
+        () -> {
+          folderDao.createFolder(
+              folderId.toString(),
+              "secondName",
+              JsonNullable.of(parentId),
+              JsonNullable.undefined(),
+              false);
+        });
+  }
+
+  @Test
+  public void cachedFolderInvalidatedOnDelete() throws Exception {
+    folderDao.createFolder(
+        folderId.toString(),
+        "cachedFolder",
+        JsonNullable.undefined(),
+        JsonNullable.of(spendProfileId.toString()),
+        false);
+    // The first read loads the cache; the second is served from it
+    assertThat(
+        folderDao.getSpendProfileFromFolder(folderId.toString()),
+        equalTo(spendProfileId.toString()));
+    assertFalse(folderDao.getSpendProfileInheritedFromFolder(folderId.toString()));
+
+    folderDao.deleteFolder(folderId.toString());
+    assertThrows(
+        FolderNotFoundException.class,
+        () -> {
+          folderDao.getSpendProfileFromFolder(folderId.toString());
+        });
+  }
+
+  // Number of successful calls of the named DAO method recorded by the query timer
+  private long queryCount(String query) {
+    Timer timer =
+        meterRegistry.find("folder.dao.query").tags("query", query, "outcome", "success").timer();
+    return (timer == null) ? 0 : timer.count();
+  }
+
+  private String createFolder(String name, String parentFolderId) {
+    String id = UUID.randomUUID().toString();
+    folderDao.createFolder(
+        id, name, JsonNullable.of(parentFolderId), JsonNullable.undefined(), false);
+    return id;
+  }
 }
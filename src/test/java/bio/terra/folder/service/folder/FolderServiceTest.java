@@ -1,19 +1,37 @@
 package bio.terra.folder.service.folder;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.blankOrNullString;
+import static org.hamcrest.Matchers.empty;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import bio.terra.folder.app.Main;
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import bio.terra.folder.common.utils.SamUtils;
 import bio.terra.folder.generated.model.CreateFolderBody;
+import bio.terra.folder.generated.model.CreateFolderTreeBody;
 import bio.terra.folder.generated.model.CreatedFolder;
+import bio.terra.folder.generated.model.CreatedFolderTree;
+import bio.terra.folder.generated.model.CreatedFolderTreeNode;
 import bio.terra.folder.generated.model.ErrorReport;
+import bio.terra.folder.generated.model.FolderDescendantList;
+import bio.terra.folder.generated.model.FolderDescription;
+import bio.terra.folder.generated.model.FolderTreeNode;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
 import bio.terra.folder.service.iam.AuthenticatedUserRequestFactory;
+import bio.terra.folder.service.iam.SamService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.hamcrest.Matchers;
@@ -22,6 +40,8 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -31,6 +51,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 @Tag("unit")
 @ExtendWith(SpringExtension.class)
@@ -38,12 +59,17 @@ import org.springframework.test.web.servlet.MvcResult;
 @SpringBootTest
 @AutoConfigureMockMvc
 public class FolderServiceTest {
+  private static final Logger logger = LoggerFactory.getLogger(FolderServiceTest.class);
 
   @Autowired private MockMvc mvc;
 
+  @Autowired private ApplicationConfiguration appConfig;
+
   // Mock MVC doesn't populate the fields used to build authenticated requests.
   @MockBean private AuthenticatedUserRequestFactory mockAuthenticatedUserRequestFactory;
 
+  @MockBean private SamService mockSamService;
+
   @Autowired private ObjectMapper objectMapper;
 
   @Autowired private FolderService folderService;
@@ -56,6 +82,7 @@ public class FolderServiceTest {
         .email("fake@email.com")
         .subjectId("fakeID123");
     when(mockAuthenticatedUserRequestFactory.from(any())).thenReturn(fakeAuthentication);
+    when(mockSamService.isAuthorized(any(), any(), any(), any())).thenReturn(true);
   }
 
   @Test
@@ -169,6 +196,308 @@ public class FolderServiceTest {
     assertThat(createError.getMessage(), Matchers.containsString("name"));
   }
 
+  @Test
+  public void fastPathCreatesFolderWithParent() throws Exception {
+    boolean fastPath = appConfig.isCreateFolderFastPath();
+    try {
+      appConfig.setCreateFolderFastPath(true);
+      CreateFolderBody parentRequest =
+          buildRequest("fastParent", JsonNullable.undefined(), JsonNullable.of("spend-profile"));
+      CreatedFolder parentFolder = runCreateFolderCall(parentRequest, null);
+
+      CreateFolderBody childRequest =
+          buildRequest(
+              "fastChild", JsonNullable.of(parentFolder.getId()), JsonNullable.undefined());
+      CreatedFolder childFolder = runCreateFolderCall(childRequest, null);
+      assertThat(childFolder.getId(), Matchers.not(blankOrNullString()));
+
+      // Error semantics match the flight path
+      mvc.perform(
+              post("/api/v1/folders")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(childRequest)))
+          .andExpect(status().is(400));
+    } finally {
+      appConfig.setCreateFolderFastPath(fastPath);
+    }
+  }
+
+  @Test
+  public void createIsRejectedWhenSamDeniesIt() throws Exception {
+    boolean authorization = appConfig.isCreateFolderAuthorization();
+    try {
+      appConfig.setCreateFolderAuthorization(true);
+      when(mockSamService.isAuthorized(any(), any(), any(), any())).thenReturn(true);
+      String parentId = createFolder("authorizedParent", null);
+
+      when(mockSamService.isAuthorized(any(), any(), eq(parentId), any())).thenReturn(false);
+      CreateFolderBody childRequest =
+          buildRequest("deniedChild", JsonNullable.of(parentId), JsonNullable.undefined());
+      mvc.perform(
+              post("/api/v1/folders")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(childRequest)))
+          .andExpect(status().is(403));
+      verify(mockSamService)
+          .isAuthorized(
+              "fake-token",
+              SamUtils.SAM_FOLDER_RESOURCE,
+              parentId,
+              SamUtils.SAM_CREATE_FOLDER_ACTION);
+    } finally {
+      appConfig.setCreateFolderAuthorization(authorization);
+    }
+  }
+
+  @Test
+  public void compareCreateThroughputOfFlightAndFastPath() throws Exception {
+    boolean fastPath = appConfig.isCreateFolderFastPath();
+    try {
+      int warmups = 10;
+      int creates = 100;
+      appConfig.setCreateFolderFastPath(false);
+      measureCreateThroughput(warmups);
+      double flightPerSecond = measureCreateThroughput(creates);
+      appConfig.setCreateFolderFastPath(true);
+      measureCreateThroughput(warmups);
+      double fastPathPerSecond = measureCreateThroughput(creates);
+      logger.info(
+          "Folder creates per second over {} creates: flight={} fastPath={}",
+          creates,
+          String.format("%.1f", flightPerSecond),
+          String.format("%.1f", fastPathPerSecond));
+      // Logged only: wall-clock rates depend on the machine and on whatever else shares the
+      // databases. FolderCreatePathBenchmark makes the comparison.
+    } finally {
+      appConfig.setCreateFolderFastPath(fastPath);
+    }
+  }
+
+  private double measureCreateThroughput(int creates) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < creates; i++) {
+      CreateFolderBody request =
+          buildRequest(
+              "throughput-" + UUID.randomUUID().toString(),
+              JsonNullable.undefined(),
+              JsonNullable.undefined());
+      runCreateFolderCall(request, null);
+    }
+    return creates / ((System.nanoTime() - start) / 1_000_000_000.0);
+  }
+
+  @Test
+  public void descendantsArePagedInDepthAndIdOrder() throws Exception {
+    String rootId = createFolder("descendantRoot", null);
+    String bravoId = createFolder("bravo", rootId);
+    String alphaId = createFolder("alpha", rootId);
+    String charlieId = createFolder("charlie", alphaId);
+
+    List<String> listedIds = new ArrayList<>();
+    String pageToken = null;
+    do {
+      FolderDescendantList page = listDescendants(rootId, 2, pageToken);
+      assertThat(page.getFolders().size() <= 2, equalTo(true));
+      for (FolderDescription folder : page.getFolders()) {
+        listedIds.add(folder.getId());
+      }
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+
+    List<String> depthOneIds = new ArrayList<>(Arrays.asList(alphaId, bravoId));
+    Collections.sort(depthOneIds);
+    assertThat(
+        listedIds, equalTo(Arrays.asList(depthOneIds.get(0), depthOneIds.get(1), charlieId)));
+  }
+
+  @Test
+  public void descendantsAreRejectedWhenSamDeniesRead() throws Exception {
+    String rootId = createFolder("unreadableRoot", null);
+    when(mockSamService.isAuthorized(any(), any(), eq(rootId), any())).thenReturn(false);
+
+    mvc.perform(get("/api/v1/folders/" + rootId + "/descendants")).andExpect(status().is(403));
+    verify(mockSamService)
+        .isAuthorized(
+            "fake-token", SamUtils.SAM_FOLDER_RESOURCE, rootId, SamUtils.SAM_READ_FOLDER_ACTION);
+  }
+
+  @Test
+  public void descendantsRequireAnAccessToken() throws Exception {
+    String rootId = createFolder("tokenlessRoot", null);
+    AuthenticatedUserRequest tokenless =
+        new AuthenticatedUserRequest()
+            .email("fake@email.com")
+            .subjectId("fakeID123")
+            .token(Optional.empty());
+    when(mockAuthenticatedUserRequestFactory.from(any())).thenReturn(tokenless);
+
+    mvc.perform(get("/api/v1/folders/" + rootId + "/descendants")).andExpect(status().is(401));
+  }
+
+  @Test
+  public void descendantsOfMissingFolderNotFound() throws Exception {
+    mvc.perform(get("/api/v1/folders/" + UUID.randomUUID().toString() + "/descendants"))
+        .andExpect(status().is(404));
+  }
+
+  @Test
+  public void descendantsWithBadPageTokenRejected() throws Exception {
+    String rootId = createFolder("badTokenRoot", null);
+    mvc.perform(get("/api/v1/folders/" + rootId + "/descendants").param("pageToken", "garbage"))
+        .andExpect(status().is(400));
+  }
+
+  @Test
+  public void folderTreeCreatedInOneRequest() throws Exception {
+    String parentId = createFolder("treeParent", null);
+    FolderTreeNode leaf = new FolderTreeNode().name("leaf");
+    FolderTreeNode branch = new FolderTreeNode().name("branch");
+    branch.setChildren(Arrays.asList(leaf));
+    FolderTreeNode sibling = new FolderTreeNode().name("sibling");
+    CreateFolderTreeBody request =
+        new CreateFolderTreeBody()
+            .parentFolderId(parentId)
+            .folders(Arrays.asList(branch, sibling));
+
+    MvcResult result =
+        mvc.perform(
+                post("/api/v1/folders/tree")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().is(200))
+            .andReturn();
+    CreatedFolderTree tree =
+        objectMapper.readValue(result.getResponse().getContentAsString(), CreatedFolderTree.class);
+    CreatedFolderTreeNode createdBranch = tree.getFolders().get(0);
+    String leafId = createdBranch.getChildren().get(0).getId();
+
+    List<String> listedIds = new ArrayList<>();
+    for (FolderDescription folder : listDescendants(parentId, 100, null).getFolders()) {
+      listedIds.add(folder.getId());
+    }
+    // Folders at the same depth are listed in id order
+    List<String> depthOneIds =
+        new ArrayList<>(Arrays.asList(createdBranch.getId(), tree.getFolders().get(1).getId()));
+    Collections.sort(depthOneIds);
+    assertThat(
+        listedIds, equalTo(Arrays.asList(depthOneIds.get(0), depthOneIds.get(1), leafId)));
+  }
+
+  @Test
+  public void folderTreeWithDuplicateSiblingsRejected() throws Exception {
+    CreateFolderTreeBody request =
+        new CreateFolderTreeBody()
+            .folders(
+                Arrays.asList(
+                    new FolderTreeNode().name("twin"), new FolderTreeNode().name("twin")));
+    mvc.perform(
+            post("/api/v1/folders/tree")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().is(400));
+  }
+
+  @Test
+  public void folderTreeWithoutFoldersCreatesNothing() throws Exception {
+    MvcResult result =
+        mvc.perform(
+                post("/api/v1/folders/tree")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CreateFolderTreeBody())))
+            .andExpect(status().is(200))
+            .andReturn();
+    CreatedFolderTree tree =
+        objectMapper.readValue(result.getResponse().getContentAsString(), CreatedFolderTree.class);
+    assertThat(tree.getFolders(), empty());
+  }
+
+  @Test
+  public void folderTreeBeyondMaxSizeRejected() throws Exception {
+    int maxSize = appConfig.getMaxFolderTreeSize();
+    try {
+      appConfig.setMaxFolderTreeSize(2);
+      CreateFolderTreeBody request =
+          new CreateFolderTreeBody()
+              .folders(
+                  Arrays.asList(
+                      new FolderTreeNode().name("one"),
+                      new FolderTreeNode().name("two"),
+                      new FolderTreeNode().name("three")));
+      mvc.perform(
+              post("/api/v1/folders/tree")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().is(400));
+    } finally {
+      appConfig.setMaxFolderTreeSize(maxSize);
+    }
+  }
+
+  @Test
+  public void folderTreeIsRejectedWhenSamDeniesCreate() throws Exception {
+    boolean authorization = appConfig.isCreateFolderAuthorization();
+    try {
+      appConfig.setCreateFolderAuthorization(true);
+      String parentId = createFolder("treeDeniedParent", null);
+      when(mockSamService.isAuthorized(any(), any(), eq(parentId), any())).thenReturn(false);
+      CreateFolderTreeBody request =
+          new CreateFolderTreeBody()
+              .parentFolderId(parentId)
+              .folders(Arrays.asList(new FolderTreeNode().name("deniedTree")));
+      mvc.perform(
+              post("/api/v1/folders/tree")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().is(403));
+      verify(mockSamService)
+          .isAuthorized(
+              "fake-token",
+              SamUtils.SAM_FOLDER_RESOURCE,
+              parentId,
+              SamUtils.SAM_CREATE_FOLDER_ACTION);
+    } finally {
+      appConfig.setCreateFolderAuthorization(authorization);
+    }
+  }
+
+  @Test
+  public void folderTreeBeyondMaxDepthRejected() throws Exception {
+    FolderTreeNode top = new FolderTreeNode().name("level1");
+    FolderTreeNode bottom = top;
+    for (int level = 2; level <= appConfig.getMaxFolderTreeDepth() + 1; level++) {
+      FolderTreeNode child = new FolderTreeNode().name("level" + level);
+      bottom.setChildren(Arrays.asList(child));
+      bottom = child;
+    }
+    CreateFolderTreeBody request = new CreateFolderTreeBody().folders(Arrays.asList(top));
+    mvc.perform(
+            post("/api/v1/folders/tree")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().is(400));
+  }
+
+  private String createFolder(String name, String parentId) throws Exception {
+    CreateFolderBody request =
+        buildRequest(
+            name,
+            parentId == null ? JsonNullable.undefined() : JsonNullable.of(parentId),
+            JsonNullable.undefined());
+    return runCreateFolderCall(request, null).getId();
+  }
+
+  private FolderDescendantList listDescendants(String folderId, int limit, String pageToken)
+      throws Exception {
+    MockHttpServletRequestBuilder request =
+        get("/api/v1/folders/" + folderId + "/descendants").param("limit", String.valueOf(limit));
+    if (pageToken != null) {
+      request.param("pageToken", pageToken);
+    }
+    MvcResult result = mvc.perform(request).andExpect(status().is(200)).andReturn();
+    return objectMapper.readValue(
+        result.getResponse().getContentAsString(), FolderDescendantList.class);
+  }
+
   private CreateFolderBody buildRequest(
       String name, JsonNullable<String> parentId, JsonNullable<String> spendProfile) {
     CreateFolderBody output = new CreateFolderBody();
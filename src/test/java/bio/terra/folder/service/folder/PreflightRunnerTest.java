@@ -0,0 +1,107 @@
+package bio.terra.folder.service.folder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.folder.app.configuration.ApplicationConfiguration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("unit")
+public class PreflightRunnerTest {
+  private PreflightRunner preflightRunner;
+
+  @BeforeEach
+  public void setup() {
+    ApplicationConfiguration appConfig = new ApplicationConfiguration();
+    appConfig.setPreflightThreads(2);
+    preflightRunner = new PreflightRunner(appConfig);
+  }
+
+  @AfterEach
+  public void teardown() {
+    preflightRunner.shutdown();
+  }
+
+  @Test
+  public void checksRunConcurrently() {
+    PreflightRunner.Phase preflight = preflightRunner.newPhase();
+    Supplier<String> first = preflight.submit(() -> sleepThenReturn(500, "first"));
+    Supplier<String> second = preflight.submit(() -> sleepThenReturn(500, "second"));
+
+    long start = System.nanoTime();
+    preflight.await();
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(first.get(), equalTo("first"));
+    assertThat(second.get(), equalTo("second"));
+    assertThat(elapsedMillis, lessThan(900L));
+  }
+
+  @Test
+  public void firstFailureIsThrownWithoutWaitingForSlowChecks() {
+    PreflightRunner.Phase preflight = preflightRunner.newPhase();
+    preflight.submit(() -> sleepThenReturn(2000, "slow"));
+    preflight.submit(
+        () -> {
+          throw new IllegalArgumentException("bad request");
+        });
+
+    long start = System.nanoTime();
+    IllegalArgumentException thrown =
+        assertThrows(IllegalArgumentException.class, preflight::await);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(thrown.getMessage(), equalTo("bad request"));
+    assertThat(elapsedMillis, lessThan(1000L));
+  }
+
+  @Test
+  public void checksNotStartedWhenOneFailsAreCancelled() {
+    // With no pool threads free, checks run one after another on the caller's thread
+    ApplicationConfiguration appConfig = new ApplicationConfiguration();
+    appConfig.setPreflightThreads(1);
+    PreflightRunner busyRunner = new PreflightRunner(appConfig);
+    try {
+      PreflightRunner.Phase blocker = busyRunner.newPhase();
+      blocker.submit(() -> sleepThenReturn(1000, "blocker"));
+      blocker.submit(() -> null);
+      // The blocker check holds the only pool thread while this phase runs
+      new Thread(blocker::await).start();
+      sleepThenReturn(100, null);
+
+      AtomicBoolean lastCheckRan = new AtomicBoolean();
+      PreflightRunner.Phase preflight = busyRunner.newPhase();
+      preflight.submit(
+          () -> {
+            throw new IllegalArgumentException("bad request");
+          });
+      preflight.submit(
+          () -> {
+            lastCheckRan.set(true);
+            return null;
+          });
+
+      assertThrows(IllegalArgumentException.class, preflight::await);
+      assertThat(lastCheckRan.get(), equalTo(false));
+    } finally {
+      busyRunner.shutdown();
+    }
+  }
+
+  private static <T> T sleepThenReturn(long millis, T result) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+}
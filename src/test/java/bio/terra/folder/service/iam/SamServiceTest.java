@@ -0,0 +1,302 @@
+package bio.terra.folder.service.iam;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.folder.app.configuration.SamConfiguration;
+import bio.terra.folder.service.iam.exception.SamUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("unit")
+public class SamServiceTest {
+  private static final String RESOURCE_TYPE = "folder";
+  private static final String ACTION = "read";
+
+  // Stands in for Sam: allows every action on the resources in allowedIds after a delay of
+  // latencyMillis, and counts the checks it answers. It also records each check's Authorization
+  // header and the client port it came from.
+  private HttpServer stubSam;
+  private ExecutorService stubExecutor;
+  private final AtomicInteger samRequests = new AtomicInteger();
+  private final Set<String> allowedIds = ConcurrentHashMap.newKeySet();
+  private final AtomicLong latencyMillis = new AtomicLong();
+  private final List<String> authorizations = new CopyOnWriteArrayList<>();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private SamConfiguration samConfig;
+  private SamService samService;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    stubSam = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    stubSam.createContext(
+        "/api/resources/v1/",
+        exchange -> {
+          samRequests.incrementAndGet();
+          authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          try {
+            Thread.sleep(latencyMillis.get());
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+          // The path is /api/resources/v1/{type}/{id}/action/{action}
+          String resourceId = exchange.getRequestURI().getPath().split("/")[5];
+          String allowed = String.valueOf(allowedIds.contains(resourceId));
+          byte[] body = allowed.getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    // Slow responses must not hold up the others
+    stubExecutor = Executors.newCachedThreadPool();
+    stubSam.setExecutor(stubExecutor);
+    stubSam.start();
+
+    samConfig = new SamConfiguration();
+    samConfig.setBasePath("http://localhost:" + stubSam.getAddress().getPort());
+    samConfig.setConnectionPoolMaxIdle(5);
+    samConfig.setConnectionKeepAliveSeconds(60);
+    samConfig.setDecisionCacheMaximumSize(100);
+    samConfig.setDecisionCacheExpireSeconds(60);
+    samConfig.setBatchConcurrency(4);
+    samConfig.setDecisionCacheStaleGraceSeconds(0);
+    samConfig.setRequestTimeoutMillis(5000);
+    samConfig.setMaxConcurrentRequests(10);
+    samConfig.setBulkheadWaitMillis(0);
+    samConfig.setCircuitFailureThreshold(2);
+    samConfig.setCircuitOpenMillis(60000);
+    samService = new SamService(samConfig, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  public void teardown() {
+    samService.shutdown();
+    stubSam.stop(0);
+    stubExecutor.shutdownNow();
+  }
+
+  // Replace the service with one built from the current samConfig
+  private void restartSamService() {
+    samService.shutdown();
+    samService = new SamService(samConfig, new SimpleMeterRegistry());
+  }
+
+  @Test
+  public void repeatedCheckIsServedFromCache() throws Exception {
+    allowedIds.add("folder-1");
+    assertThat(samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION), equalTo(true));
+    assertThat(samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION), equalTo(true));
+    assertThat(samRequests.get(), equalTo(1));
+  }
+
+  @Test
+  public void checksForOtherCallersOrResourcesGoToSam() throws Exception {
+    allowedIds.addAll(Arrays.asList("folder-1", "folder-2"));
+    samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION);
+    samService.isAuthorized("other-token", RESOURCE_TYPE, "folder-1", ACTION);
+    samService.isAuthorized("token", RESOURCE_TYPE, "folder-2", ACTION);
+    samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", "write");
+    assertThat(samRequests.get(), equalTo(4));
+  }
+
+  @Test
+  public void callsShareOneClientAndCarryTheirOwnToken() throws Exception {
+    allowedIds.add("folder-1");
+    samService.isAuthorized("token-a", RESOURCE_TYPE, "folder-1", ACTION);
+    samService.isAuthorized("token-b", RESOURCE_TYPE, "folder-1", ACTION);
+    samService.isAuthorized("token-c", RESOURCE_TYPE, "folder-1", ACTION);
+    assertThat(
+        authorizations,
+        equalTo(Arrays.asList("Bearer token-a", "Bearer token-b", "Bearer token-c")));
+    // One shared client keeps the connection open between calls
+    assertThat(clientPorts.size(), equalTo(1));
+  }
+
+  @Test
+  public void batchSkipsDescendantsOfAllowedFolders() throws Exception {
+    // root -> a -> a1, a2; root -> b -> b1; only a and b1 are allowed directly
+    Map<String, String> parentIds = new HashMap<>();
+    parentIds.put("root", null);
+    parentIds.put("a", "root");
+    parentIds.put("a1", "a");
+    parentIds.put("a2", "a");
+    parentIds.put("b", "root");
+    parentIds.put("b1", "b");
+    allowedIds.addAll(Arrays.asList("a", "b1"));
+
+    Set<String> authorized = samService.filterAuthorized("token", RESOURCE_TYPE, ACTION, parentIds);
+
+    assertThat(authorized, equalTo(new HashSet<>(Arrays.asList("a", "a1", "a2", "b1"))));
+    // root, a, b and b1 are checked; a1 and a2 inherit from a
+    assertThat(samRequests.get(), equalTo(4));
+  }
+
+  @Test
+  public void batchUnderAllowedRootChecksOnlyTheRoot() throws Exception {
+    Map<String, String> parentIds = new HashMap<>();
+    parentIds.put("root", "parent-outside-batch");
+    for (int i = 0; i < 1000; i++) {
+      parentIds.put("child-" + i, "root");
+      parentIds.put("grandchild-" + i, "child-" + i);
+    }
+    allowedIds.add("root");
+
+    Set<String> authorized = samService.filterAuthorized("token", RESOURCE_TYPE, ACTION, parentIds);
+
+    assertThat(authorized, equalTo(parentIds.keySet()));
+    assertThat(samRequests.get(), equalTo(1));
+  }
+
+  @Test
+  public void batchLargerThanTheQueueIsStillChecked() throws Exception {
+    // More independent checks than the pool and its queue hold; the overflow runs on the caller
+    Map<String, String> parentIds = new HashMap<>();
+    Set<String> expected = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      parentIds.put("folder-" + i, null);
+      if (i % 2 == 0) {
+        allowedIds.add("folder-" + i);
+        expected.add("folder-" + i);
+      }
+    }
+
+    Set<String> authorized = samService.filterAuthorized("token", RESOURCE_TYPE, ACTION, parentIds);
+
+    assertThat(authorized, equalTo(expected));
+    assertThat(samRequests.get(), equalTo(50));
+  }
+
+  @Test
+  public void slowSamOpensBreakerAndCallsFailFast() throws Exception {
+    samConfig.setRequestTimeoutMillis(200);
+    restartSamService();
+    allowedIds.add("folder-1");
+    latencyMillis.set(2000);
+
+    // Each call gives up at its deadline; the second failure opens the breaker
+    for (int i = 0; i < 2; i++) {
+      String resourceId = "folder-" + i;
+      long start = System.nanoTime();
+      assertThrows(
+          SamUnavailableException.class,
+          () -> samService.isAuthorized("token", RESOURCE_TYPE, resourceId, ACTION));
+      assertThat(elapsedMillis(start), lessThan(1000L));
+    }
+    assertThat(samService.getCircuitBreakerState(), equalTo("OPEN"));
+
+    // With the breaker open, calls are refused without reaching Sam
+    int requestsBefore = samRequests.get();
+    long start = System.nanoTime();
+    assertThrows(
+        SamUnavailableException.class,
+        () -> samService.isAuthorized("token", RESOURCE_TYPE, "folder-2", ACTION));
+    assertThat(elapsedMillis(start), lessThan(100L));
+    assertThat(samRequests.get(), equalTo(requestsBefore));
+  }
+
+  @Test
+  public void breakerClosesWhenTrialCallSucceeds() throws Exception {
+    samConfig.setRequestTimeoutMillis(200);
+    samConfig.setCircuitOpenMillis(100);
+    restartSamService();
+    allowedIds.add("folder-1");
+
+    latencyMillis.set(2000);
+    for (int i = 0; i < 2; i++) {
+      String resourceId = "folder-" + i;
+      assertThrows(
+          SamUnavailableException.class,
+          () -> samService.isAuthorized("token", RESOURCE_TYPE, resourceId, ACTION));
+    }
+    assertThat(samService.getCircuitBreakerState(), equalTo("OPEN"));
+
+    latencyMillis.set(0);
+    TimeUnit.MILLISECONDS.sleep(200);
+    assertThat(samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION), equalTo(true));
+    assertThat(samService.getCircuitBreakerState(), equalTo("CLOSED"));
+  }
+
+  @Test
+  public void staleDecisionIsServedWhileSamIsUnavailable() throws Exception {
+    // Decisions expire at once, but may be used for a minute while Sam cannot be reached
+    samConfig.setDecisionCacheExpireSeconds(0);
+    samConfig.setDecisionCacheStaleGraceSeconds(60);
+    samConfig.setRequestTimeoutMillis(200);
+    samConfig.setCircuitFailureThreshold(1);
+    restartSamService();
+    allowedIds.add("folder-1");
+    assertThat(samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION), equalTo(true));
+
+    latencyMillis.set(2000);
+    // The call times out and opens the breaker; the stale decision answers
+    assertThat(samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION), equalTo(true));
+    assertThat(samService.getCircuitBreakerState(), equalTo("OPEN"));
+    // There is no decision at all for another resource
+    assertThrows(
+        SamUnavailableException.class,
+        () -> samService.isAuthorized("token", RESOURCE_TYPE, "folder-2", ACTION));
+  }
+
+  @Test
+  public void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+    samConfig.setMaxConcurrentRequests(1);
+    restartSamService();
+    allowedIds.add("folder-1");
+    latencyMillis.set(1000);
+
+    ExecutorService caller = Executors.newSingleThreadExecutor();
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      Future<Boolean> slowCall =
+          caller.submit(
+              () -> {
+                started.countDown();
+                return samService.isAuthorized("token", RESOURCE_TYPE, "folder-1", ACTION);
+              });
+      started.await();
+      // Give the slow call time to take the only permit
+      TimeUnit.MILLISECONDS.sleep(200);
+
+      assertThrows(
+          SamUnavailableException.class,
+          () -> samService.isAuthorized("token", RESOURCE_TYPE, "folder-2", ACTION));
+      assertThat(slowCall.get(), equalTo(true));
+      // Being turned away by the bulkhead says nothing about Sam's health
+      assertThat(samService.getCircuitBreakerState(), equalTo("CLOSED"));
+    } finally {
+      caller.shutdownNow();
+    }
+  }
+
+  private static long elapsedMillis(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+}
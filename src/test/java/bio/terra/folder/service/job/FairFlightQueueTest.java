@@ -0,0 +1,84 @@
+package bio.terra.folder.service.job;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("unit")
+public class FairFlightQueueTest {
+  private final Map<Runnable, String> subjects = new HashMap<>();
+  private final List<String> ran = new ArrayList<>();
+  private final FairFlightQueue queue = new FairFlightQueue(subjects::get);
+
+  @Test
+  public void takesTurnsAcrossSubjects() {
+    // A batch client queues five flights before an interactive user queues two
+    for (int i = 0; i < 5; i++) {
+      queue.offer(task("batch", i));
+    }
+    for (int i = 0; i < 2; i++) {
+      queue.offer(task("interactive", i));
+    }
+    assertThat(queue.subjectCount(), equalTo(2));
+
+    runAll();
+
+    // The interactive flights alternate with the batch flights instead of waiting behind them
+    assertThat(
+        ran,
+        equalTo(
+            Arrays.asList(
+                "batch-0",
+                "interactive-0",
+                "batch-1",
+                "interactive-1",
+                "batch-2",
+                "batch-3",
+                "batch-4")));
+    assertThat(queue.size(), equalTo(0));
+    assertThat(queue.subjectCount(), equalTo(0));
+  }
+
+  @Test
+  public void singleSubjectIsFifo() {
+    for (int i = 0; i < 3; i++) {
+      queue.offer(task("only", i));
+    }
+
+    runAll();
+
+    assertThat(ran, equalTo(Arrays.asList("only-0", "only-1", "only-2")));
+  }
+
+  @Test
+  public void tasksWithoutSubjectShareOneTurn() {
+    queue.offer(task(null, 0));
+    queue.offer(task(null, 1));
+    queue.offer(task("user", 0));
+
+    runAll();
+
+    assertThat(ran, equalTo(Arrays.asList("null-0", "user-0", "null-1")));
+  }
+
+  // A task that records its subject and index when it runs
+  private Runnable task(String subject, int index) {
+    Runnable task = () -> ran.add(subject + "-" + index);
+    subjects.put(task, subject);
+    return task;
+  }
+
+  private void runAll() {
+    Runnable task;
+    while ((task = queue.poll()) != null) {
+      task.run();
+    }
+  }
+}
@@ -3,37 +3,65 @@ package bio.terra.folder.service.job;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import bio.terra.folder.app.Main;
+import bio.terra.folder.app.configuration.StairwayJdbcConfiguration;
+import bio.terra.folder.common.exception.InvalidPageTokenException;
+import bio.terra.folder.common.exception.ValidationException;
+import bio.terra.folder.db.JobOwnerDao;
+import bio.terra.folder.generated.model.JobList;
 import bio.terra.folder.generated.model.JobModel;
 import bio.terra.folder.service.iam.AuthenticatedUserRequest;
 import bio.terra.folder.service.iam.SamService;
 import bio.terra.folder.service.job.exception.JobNotFoundException;
 import bio.terra.stairway.exception.StairwayException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.broadinstitute.dsde.workbench.client.sam.model.ResourceAndAccessPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 @Tag("unit")
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = Main.class)
-@SpringBootTest
+// Neither the fallback poll nor the long-poll limit can end a wait during a test, so every wait
+// that returns was ended by the job's completion
+@SpringBootTest(
+    properties = {"folder.stairwayPollFallbackSeconds=3600", "folder.maxJobWaitSeconds=3600"})
 @AutoConfigureMockMvc
 public class JobServiceTest {
   private AuthenticatedUserRequest testUser =
@@ -44,8 +72,16 @@ public class JobServiceTest {
 
   @Autowired private JobService jobService;
 
+  @Autowired private StairwayJdbcConfiguration stairwayJdbcConfiguration;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private Tracer tracer;
+
   @MockBean private SamService mockSamService;
 
+  @SpyBean private JobOwnerDao jobOwnerDao;
+
   @BeforeEach
   public void setup() {
     try {
@@ -86,6 +122,9 @@ public class JobServiceTest {
 
       // Retrieve past the end; should get nothing
       testEnumCount(0, 22, 3, allowedIds);
+
+      // Page through everything three at a time using page tokens
+      testListPages(jobIds, 3);
     } finally {
       for (String jobId : jobIds) {
         jobService.releaseJob(jobId, testUser);
@@ -127,6 +166,165 @@ public class JobServiceTest {
     assertThat(jobList.size(), equalTo(count));
   }
 
+  // Follow page tokens to the end and check the jobs come back in submission order
+  private void testListPages(List<String> fids, int limit) {
+    List<JobModel> allJobs = new ArrayList<>();
+    String pageToken = null;
+    do {
+      JobList page = jobService.listJobs(limit, pageToken, testUser);
+      assertThat(page.getJobs().size(), lessThanOrEqualTo(limit));
+      allJobs.addAll(page.getJobs());
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+
+    assertThat(allJobs.size(), equalTo(fids.size()));
+    for (int i = 0; i < allJobs.size(); i++) {
+      validateJobModel(allJobs.get(i), i, fids);
+    }
+  }
+
+  @Test
+  public void testBadPageTokenListJobs() {
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> {
+          jobService.listJobs(10, "not-a-token", testUser);
+        });
+  }
+
+  @Test
+  public void jobsWaitedOnInlineAreNotListed() {
+    AuthenticatedUserRequest inlineUser =
+        new AuthenticatedUserRequest()
+            .subjectId("StairwayInline")
+            .email("inline@unit.com")
+            .token(Optional.of("not-a-real-token"));
+    String jobId = UUID.randomUUID().toString();
+    try {
+      jobService
+          .newJob(makeDescription(0), jobId, JobServiceTestFlight.class, null, inlineUser)
+          .submitAndWait(String.class);
+      assertThat(jobService.listJobs(10, null, inlineUser).getJobs(), empty());
+    } finally {
+      jobService.releaseJob(jobId, inlineUser);
+    }
+  }
+
+  @Test
+  public void onlyAsynchronousJobsAnnounceCompletion() throws Exception {
+    String inlineJobId = UUID.randomUUID().toString();
+    String asyncJobId = null;
+    try {
+      jobService
+          .newJob(makeDescription(0), inlineJobId, JobServiceTestFlight.class, null, testUser)
+          .submitAndWait(String.class);
+      asyncJobId = runFlight(makeDescription(1));
+      // The inline job finished first, so a notice for it would have been sent ahead of this one
+      verify(jobOwnerDao, timeout(5000)).notifyJobCompleted(asyncJobId);
+      verify(jobOwnerDao, never()).notifyJobCompleted(inlineJobId);
+    } finally {
+      jobService.releaseJob(inlineJobId, testUser);
+      if (asyncJobId != null) {
+        jobService.releaseJob(asyncJobId, testUser);
+      }
+    }
+  }
+
+  @Test
+  @Timeout(60)
+  public void longPollIsWokenByCompletion() throws Exception {
+    JobServiceTestBlockingStep.release = new CountDownLatch(1);
+    String jobId = UUID.randomUUID().toString();
+    jobService
+        .newJob(makeDescription(0), jobId, JobServiceTestBlockingFlight.class, null, testUser)
+        .submit();
+    try {
+      CompletableFuture<JobModel> longPoll =
+          CompletableFuture.supplyAsync(() -> jobService.retrieveJob(jobId, testUser, 3600));
+      JobServiceTestBlockingStep.release.countDown();
+      assertThat(longPoll.get().getStatus(), equalTo(JobModel.StatusEnum.SUCCEEDED));
+    } finally {
+      JobServiceTestBlockingStep.release.countDown();
+      jobService.waitForJob(jobId);
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
+  @Test
+  public void longPollCapsExcessiveWait() throws Exception {
+    String jobId = runFlight(makeDescription(0));
+    try {
+      // A wait beyond maxJobWaitSeconds is capped rather than rejected
+      JobModel job = jobService.retrieveJob(jobId, testUser, 100000);
+      assertThat(job.getStatus(), equalTo(JobModel.StatusEnum.SUCCEEDED));
+    } finally {
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
+  @Test
+  public void longPollRejectsNegativeWait() {
+    assertThrows(
+        ValidationException.class,
+        () -> {
+          jobService.retrieveJob("abcdef", testUser, -1);
+        });
+  }
+
+  @Test
+  public void releasedJobIsEvictedFromCache() throws Exception {
+    String jobId = runFlight(makeDescription(0));
+    // The first retrieval caches the completed flight; the second is served from the cache
+    for (int i = 0; i < 2; i++) {
+      assertThat(
+          jobService.retrieveJobResult(jobId, String.class, testUser).getResult(),
+          equalTo(makeDescription(0)));
+    }
+    jobService.releaseJob(jobId, testUser);
+    assertThrows(JobNotFoundException.class, () -> jobService.retrieveJob(jobId, testUser));
+  }
+
+  @Test
+  public void purgeDeletesOnlyOldFinishedFlights() throws Exception {
+    // Backdate one finished flight well past the cutoff, so that the purge cannot reach flights
+    // left behind by other tests, which all completed within the last day
+    String oldJobId = runFlight(makeDescription(0));
+    NamedParameterJdbcTemplate stairwayJdbc =
+        new NamedParameterJdbcTemplate(stairwayJdbcConfiguration.getDataSource());
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("id", oldJobId);
+    paramMap.put("completed", Timestamp.from(Instant.now().minus(30, ChronoUnit.DAYS)));
+    assertThat(
+        stairwayJdbc.update(
+            "UPDATE flight SET completed_time = :completed WHERE flightid = :id", paramMap),
+        equalTo(1));
+    String freshJobId = runFlight(makeDescription(1));
+    JobServiceTestBlockingStep.release = new CountDownLatch(1);
+    String runningJobId = UUID.randomUUID().toString();
+    jobService
+        .newJob(
+            makeDescription(2), runningJobId, JobServiceTestBlockingFlight.class, null, testUser)
+        .submit();
+    try {
+      Instant cutoff = Instant.now().minus(1, ChronoUnit.DAYS);
+      // Page through in batches of one until everything before the cutoff is gone
+      while (jobService.purgeCompletedFlights(cutoff, 1) == 1) {}
+
+      assertThrows(JobNotFoundException.class, () -> jobService.retrieveJob(oldJobId, testUser));
+      assertThat(
+          jobService.retrieveJob(freshJobId, testUser).getStatus(),
+          equalTo(JobModel.StatusEnum.SUCCEEDED));
+      assertThat(
+          jobService.retrieveJob(runningJobId, testUser).getStatus(),
+          equalTo(JobModel.StatusEnum.RUNNING));
+    } finally {
+      JobServiceTestBlockingStep.release.countDown();
+      jobService.waitForJob(runningJobId);
+      jobService.releaseJob(freshJobId, testUser);
+      jobService.releaseJob(runningJobId, testUser);
+    }
+  }
+
   @Test
   public void testBadIdRetrieveJob() {
     assertThrows(
@@ -145,6 +343,72 @@ public class JobServiceTest {
         });
   }
 
+  @Test
+  @Timeout(60)
+  public void submitAndWaitIsWokenByCompletion() {
+    // The latency itself is measured by JobWaitBenchmark
+    List<String> jobIds = new ArrayList<>();
+    try {
+      for (int i = 0; i < 10; i++) {
+        String jobId = UUID.randomUUID().toString();
+        jobIds.add(jobId);
+        String result =
+            jobService
+                .newJob(makeDescription(i), jobId, JobServiceTestFlight.class, null, testUser)
+                .submitAndWait(String.class);
+        assertThat(result, equalTo(makeDescription(i)));
+      }
+    } finally {
+      for (String jobId : jobIds) {
+        jobService.releaseJob(jobId, testUser);
+      }
+    }
+  }
+
+  @Test
+  public void jobOperationsAreTimed() {
+    long submitsBefore = timerCount("folder.job.submit");
+    long submitAndWaitsBefore = timerCount("folder.job.submit.wait");
+    String jobId = UUID.randomUUID().toString();
+    try {
+      jobService
+          .newJob(makeDescription(0), jobId, JobServiceTestFlight.class, null, testUser)
+          .submitAndWait(String.class);
+    } finally {
+      jobService.releaseJob(jobId, testUser);
+    }
+    assertThat(timerCount("folder.job.submit"), equalTo(submitsBefore + 1));
+    assertThat(timerCount("folder.job.submit.wait"), equalTo(submitAndWaitsBefore + 1));
+  }
+
+  // Number of successful JobServiceTestFlight operations recorded by the named timer
+  private long timerCount(String name) {
+    Timer timer =
+        meterRegistry
+            .find(name)
+            .tags("flight", "JobServiceTestFlight", "outcome", "success")
+            .timer();
+    return (timer == null) ? 0 : timer.count();
+  }
+
+  @Test
+  public void flightRunsInSubmittersTrace() {
+    String jobId = UUID.randomUUID().toString();
+    Span span = tracer.spanBuilder("test").startSpan();
+    try (Scope scope = span.makeCurrent()) {
+      // The flight's step reports the trace and request id it sees on the Stairway thread
+      String result =
+          jobService
+              .newJob(makeDescription(0), jobId, JobServiceTestTraceFlight.class, null, testUser)
+              .submitAndWait(String.class);
+      assertThat(
+          result, equalTo(span.getSpanContext().getTraceId() + "/" + testUser.getReqId()));
+    } finally {
+      span.end();
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
   private void validateJobModel(JobModel jm, int index, List<String> fids) {
     assertThat(jm.getDescription(), equalTo(makeDescription(index)));
     assertThat(jm.getId(), equalTo(fids.get(index)));
@@ -0,0 +1,12 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+
+public class JobServiceTestBlockingFlight extends Flight {
+
+  public JobServiceTestBlockingFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+    addStep(new JobServiceTestBlockingStep());
+  }
+}
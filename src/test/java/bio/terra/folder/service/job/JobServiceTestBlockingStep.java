@@ -0,0 +1,28 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Keeps its flight running until the test counts down the latch, or for at most a minute
+public class JobServiceTestBlockingStep implements Step {
+  static volatile CountDownLatch release = new CountDownLatch(0);
+
+  @Override
+  public StepResult doStep(FlightContext context) {
+    try {
+      release.await(60, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    context.getWorkingMap().put(JobMapKeys.RESPONSE.getKeyName(), "released");
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) {
+    return StepResult.getStepResultSuccess();
+  }
+}
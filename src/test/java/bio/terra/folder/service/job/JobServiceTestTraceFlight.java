@@ -0,0 +1,12 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+
+public class JobServiceTestTraceFlight extends Flight {
+
+  public JobServiceTestTraceFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+    addStep(new JobServiceTestTraceStep());
+  }
+}
@@ -0,0 +1,25 @@
+package bio.terra.folder.service.job;
+
+import bio.terra.folder.common.utils.TracingUtils;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.MDC;
+
+// Responds with the trace id and logging request id the step runs under, as "traceId/reqId"
+public class JobServiceTestTraceStep implements Step {
+
+  @Override
+  public StepResult doStep(FlightContext context) {
+    String traceId = Span.current().getSpanContext().getTraceId();
+    String requestId = MDC.get(TracingUtils.REQUEST_ID_MDC_KEY);
+    context.getWorkingMap().put(JobMapKeys.RESPONSE.getKeyName(), traceId + "/" + requestId);
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) {
+    return StepResult.getStepResultSuccess();
+  }
+}
@@ -0,0 +1,51 @@
+package bio.terra.folder.service.job;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import bio.terra.folder.service.job.exception.ExceptionSerializerException;
+import bio.terra.folder.service.migrate.exception.MigrateException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("unit")
+public class StairwayExceptionSerializerTest {
+  private final StairwayExceptionSerializer serializer =
+      new StairwayExceptionSerializer(new ObjectMapper());
+
+  @Test
+  public void errorReportExceptionRoundTripsWithDetails() {
+    List<String> causes = Arrays.asList("first cause", "second cause");
+    String serialized = serializer.serialize(new MigrateException("migrate failed", causes));
+    Exception result = serializer.deserialize(serialized);
+
+    assertThat(result, instanceOf(MigrateException.class));
+    assertThat(result.getMessage(), equalTo("migrate failed"));
+    assertThat(((MigrateException) result).getCauses(), equalTo(causes));
+  }
+
+  @Test
+  public void plainRuntimeExceptionRoundTrips() {
+    Exception result =
+        serializer.deserialize(serializer.serialize(new IllegalStateException("bad state")));
+
+    assertThat(result, instanceOf(IllegalStateException.class));
+    assertThat(result.getMessage(), equalTo("bad state"));
+  }
+
+  @Test
+  public void unregisteredClassIsRejected() {
+    // A class that exists and has a String constructor, but is not in the registry
+    String serialized =
+        serializer
+            .serialize(new IllegalStateException("boom"))
+            .replace(IllegalStateException.class.getName(), StringBuilder.class.getName());
+    Exception result = serializer.deserialize(serialized);
+
+    assertThat(result, instanceOf(ExceptionSerializerException.class));
+  }
+}
@@ -0,0 +1,67 @@
+package bio.terra.folder.service.job;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import bio.terra.folder.app.configuration.FlightPoolConfiguration;
+import bio.terra.folder.service.folder.flight.FolderCreateFlight;
+import io.opentelemetry.api.OpenTelemetry;
+import java.util.Collections;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("unit")
+public class StairwayThreadPoolTest {
+
+  @Test
+  public void admissionRejectsOnceQueueIsFull() {
+    // One thread plus one queue slot: the third outstanding flight is turned away
+    StairwayThreadPool pool =
+        new StairwayThreadPool(
+            poolConfig(1, 1), Collections.emptyMap(), flightId -> {}, noTracing());
+    try {
+      assertThat(pool.tryAdmit("first", JobServiceTestFlight.class), equalTo(true));
+      assertThat(pool.tryAdmit("second", JobServiceTestFlight.class), equalTo(true));
+      assertThat(pool.tryAdmit("third", JobServiceTestFlight.class), equalTo(false));
+      // A finished flight makes room again; releasing an unknown flight does not
+      pool.release("unknown");
+      assertThat(pool.tryAdmit("third", JobServiceTestFlight.class), equalTo(false));
+      pool.release("first");
+      assertThat(pool.tryAdmit("third", JobServiceTestFlight.class), equalTo(true));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void flightClassPoolsAreIsolated() {
+    // The test flight gets its own single-slot pool; filling it leaves the default pool alone
+    FlightPoolConfiguration testFlightPool = poolConfig(1, 0);
+    testFlightPool.setFlightClasses(
+        Collections.singletonList(JobServiceTestFlight.class.getName()));
+    StairwayThreadPool pool =
+        new StairwayThreadPool(
+            poolConfig(1, 0),
+            Collections.singletonMap("test", testFlightPool),
+            flightId -> {},
+            noTracing());
+    try {
+      assertThat(pool.tryAdmit("slow", JobServiceTestFlight.class), equalTo(true));
+      assertThat(pool.tryAdmit("slow2", JobServiceTestFlight.class), equalTo(false));
+      assertThat(pool.tryAdmit("fast", FolderCreateFlight.class), equalTo(true));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private FlightTracing noTracing() {
+    return new FlightTracing(OpenTelemetry.noop());
+  }
+
+  private FlightPoolConfiguration poolConfig(int threads, int maxQueued) {
+    FlightPoolConfiguration config = new FlightPoolConfiguration();
+    config.setThreads(threads);
+    config.setMaxQueued(maxQueued);
+    return config;
+  }
+}
@@ -0,0 +1,89 @@
+package bio.terra.folder.service.status;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import bio.terra.folder.app.Main;
+import bio.terra.folder.generated.model.SystemStatus;
+import bio.terra.folder.generated.model.SystemStatusSystems;
+import bio.terra.folder.service.iam.SamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@Tag("unit")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = Main.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StatusServiceTest {
+  @Autowired private MockMvc mvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private StatusService statusService;
+
+  @MockBean private SamService mockSamService;
+
+  @BeforeEach
+  public void setup() {
+    // The tests run the checks themselves; background runs would race with them
+    statusService.stop();
+  }
+
+  @Test
+  public void statusReportsEverySystem() throws Exception {
+    when(mockSamService.status()).thenReturn(new SystemStatusSystems().ok(true));
+    statusService.check();
+
+    SystemStatus systemStatus = getStatus(200);
+    assertThat(systemStatus.getOk(), equalTo(true));
+    assertThat(systemStatus.getSystems().get("folderDatabase").getOk(), equalTo(true));
+    assertThat(systemStatus.getSystems().get("stairwayDatabase").getOk(), equalTo(true));
+    assertThat(systemStatus.getSystems().get("stairwayPools").getOk(), equalTo(true));
+    assertThat(systemStatus.getSystems().get("sam").getOk(), equalTo(true));
+  }
+
+  @Test
+  public void samOutageDoesNotFailStatus() throws Exception {
+    when(mockSamService.status())
+        .thenReturn(new SystemStatusSystems().ok(false).addMessagesItem("circuit breaker OPEN"));
+    statusService.check();
+
+    SystemStatus systemStatus = getStatus(200);
+    assertThat(systemStatus.getOk(), equalTo(true));
+    assertThat(systemStatus.getSystems().get("sam").getOk(), equalTo(false));
+  }
+
+  @Test
+  public void repeatedStatusCallsDoNotRerunChecks() throws Exception {
+    when(mockSamService.status()).thenReturn(new SystemStatusSystems().ok(true));
+    statusService.check();
+    SystemStatus first = getStatus(200);
+
+    // Answers come from the stored results until the next check
+    when(mockSamService.status()).thenReturn(new SystemStatusSystems().ok(false));
+    SystemStatus second = getStatus(200);
+    assertThat(second.getSystems().get("sam").getOk(), equalTo(true));
+    assertThat(second, equalTo(first));
+  }
+
+  private SystemStatus getStatus(int expectedStatus) throws Exception {
+    MvcResult result =
+        mvc.perform(get("/status")).andExpect(status().is(expectedStatus)).andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), SystemStatus.class);
+  }
+}